@@ -0,0 +1,84 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.farm.Farm;
+import com.egguard.egguardbackend.shared.util.MathUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one duplicate check in farms of growing size: the linear scan over every unpicked egg that
+ * registration used to do, against the per-farm spatial index it uses now.
+ * Eggs are spread with a constant density, so bigger farms are also bigger barns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EggDuplicateCheckBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final Long FARM_ID = 1L;
+
+    @Param({"100", "10000", "1000000"})
+    private int unpickedEggs;
+
+    private List<Egg> eggs;
+    private EggSpatialIndex eggSpatialIndex;
+    private final double[] probeXs = new double[PROBES];
+    private final double[] probeYs = new double[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        double side = Math.sqrt(unpickedEggs) * 0.5;
+        Farm farm = Farm.builder().id(FARM_ID).build();
+
+        eggs = new ArrayList<>(unpickedEggs);
+        for (int i = 0; i < unpickedEggs; i++) {
+            eggs.add(Egg.builder()
+                    .id((long) i)
+                    .farm(farm)
+                    .coordX(random.nextDouble(0, side))
+                    .coordY(random.nextDouble(0, side))
+                    .broken(random.nextDouble() < 0.2)
+                    .picked(false)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+        for (int i = 0; i < PROBES; i++) {
+            probeXs[i] = random.nextDouble(0, side);
+            probeYs[i] = random.nextDouble(0, side);
+        }
+
+        eggSpatialIndex = new EggSpatialIndex();
+        // Loads the farm grid up front, as it is after the first registration
+        eggSpatialIndex.containsDuplicate(FARM_ID, 0, 0, false, () -> eggs);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        int i = next++ & (PROBES - 1);
+        Boolean broken = Boolean.FALSE;
+        for (Egg egg : eggs) {
+            double distance = MathUtils.calculateDistance(egg.getCoordX(), egg.getCoordY(), probeXs[i], probeYs[i]);
+            if (distance <= EggService.DUPLICATE_DISTANCE_THRESHOLD && egg.getBroken() == broken) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean spatialIndex() {
+        int i = next++ & (PROBES - 1);
+        return eggSpatialIndex.containsDuplicate(FARM_ID, probeXs[i], probeYs[i], false, () -> eggs);
+    }
+}
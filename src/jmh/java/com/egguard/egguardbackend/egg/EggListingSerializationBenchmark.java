@@ -0,0 +1,46 @@
+package com.egguard.egguardbackend.egg;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing the egg listing response body, with the same Jackson setup Spring Boot uses
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EggListingSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int listedEggs;
+
+    private ObjectMapper objectMapper;
+    private List<EggDto> eggs;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        eggs = new ArrayList<>(listedEggs);
+        for (int i = 0; i < listedEggs; i++) {
+            eggs.add(new EggDto((long) i, 1L, random.nextDouble(-4, 4), random.nextDouble(-7.5, 7.5),
+                    random.nextDouble() < 0.2, random.nextBoolean(), now.minusMinutes(i)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeEggList() throws Exception {
+        return objectMapper.writeValueAsBytes(eggs);
+    }
+}
@@ -0,0 +1,63 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.farm.Farm;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-object cost of mapping eggs with ModelMapper (before) and with {@link EggMapper} (after)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EggMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private Egg egg;
+    private RegisterEggRequest request;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        egg = Egg.builder()
+                .id(1L)
+                .farm(Farm.builder().id(1L).build())
+                .coordX(10.0)
+                .coordY(20.0)
+                .broken(false)
+                .picked(false)
+                .timestamp(LocalDateTime.now())
+                .build();
+        request = new RegisterEggRequest(10.0, 20.0, false);
+        // Type maps are created on first use, keep that out of the measurements
+        modelMapper.map(egg, EggDto.class);
+        modelMapper.map(request, Egg.class);
+    }
+
+    @Benchmark
+    public EggDto modelMapperToDto() {
+        return modelMapper.map(egg, EggDto.class);
+    }
+
+    @Benchmark
+    public EggDto eggMapperToDto() {
+        return EggMapper.toDto(egg);
+    }
+
+    @Benchmark
+    public Egg modelMapperToEntity() {
+        return modelMapper.map(request, Egg.class);
+    }
+
+    @Benchmark
+    public Egg eggMapperToEntity() {
+        return EggMapper.toEntity(request);
+    }
+}
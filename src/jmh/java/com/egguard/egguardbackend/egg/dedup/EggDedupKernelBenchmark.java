@@ -0,0 +1,89 @@
+package com.egguard.egguardbackend.egg.dedup;
+
+import com.egguard.egguardbackend.egg.Egg;
+import com.egguard.egguardbackend.egg.EggService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scan of a set of eggs with no duplicate: the loop over entities with boxed getters and Math.pow distances
+ * the dedup kernels replace, against the scalar kernel and the kernel selected on the JVM over primitive columns.
+ * The selected kernel is the Vector API one when run with the vector profile: ./mvnw -Pjmh,vector test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class EggDedupKernelBenchmark {
+
+    private static final double THRESHOLD = EggService.DUPLICATE_DISTANCE_THRESHOLD;
+
+    @Param({"16", "1024", "65536"})
+    private int eggCount;
+
+    private List<Egg> eggs;
+    private double[] coordsX;
+    private double[] coordsY;
+    private boolean[] broken;
+    private final EggDedupKernel scalarKernel = new ScalarEggDedupKernel();
+    private final EggDedupKernel selectedKernel = EggDedupKernels.select();
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        eggs = new ArrayList<>(eggCount);
+        coordsX = new double[eggCount];
+        coordsY = new double[eggCount];
+        broken = new boolean[eggCount];
+        for (int i = 0; i < eggCount; i++) {
+            // Keeps every egg away from the probed origin so each check scans the whole set
+            coordsX[i] = random.nextDouble(1, 100);
+            coordsY[i] = random.nextDouble(1, 100);
+            broken[i] = random.nextDouble() < 0.2;
+            eggs.add(Egg.builder()
+                    .id((long) i)
+                    .coordX(coordsX[i])
+                    .coordY(coordsY[i])
+                    .broken(broken[i])
+                    .picked(false)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public boolean entityLoop() {
+        Boolean requestBroken = Boolean.FALSE;
+        for (Egg egg : eggs) {
+            if (originalDistance(egg.getCoordX(), egg.getCoordY(), 0.0, 0.0) <= THRESHOLD
+                    && egg.getBroken() == requestBroken) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean scalarKernel() {
+        return scalarKernel.containsDuplicate(coordsX, coordsY, broken, eggCount, 0.0, 0.0, false,
+                THRESHOLD * THRESHOLD);
+    }
+
+    @Benchmark
+    public boolean selectedKernel() {
+        return selectedKernel.containsDuplicate(coordsX, coordsY, broken, eggCount, 0.0, 0.0, false,
+                THRESHOLD * THRESHOLD);
+    }
+
+    /**
+     * Distance as computed by MathUtils.calculateDistance before the dedup kernels
+     */
+    private static double originalDistance(double x1, double y1, double x2, double y2) {
+        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+    }
+}
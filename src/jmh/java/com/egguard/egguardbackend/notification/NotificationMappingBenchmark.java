@@ -0,0 +1,63 @@
+package com.egguard.egguardbackend.notification;
+
+import com.egguard.egguardbackend.farm.Farm;
+import com.egguard.egguardbackend.notification.request.RegisterNotificationRequest;
+import com.egguard.egguardbackend.shared.enums.NotificationSeverity;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-object cost of mapping notifications with ModelMapper (before) and with {@link NotificationMapper} (after)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private Notification notification;
+    private RegisterNotificationRequest request;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        notification = Notification.builder()
+                .id(1L)
+                .farm(Farm.builder().id(1L).build())
+                .severity(NotificationSeverity.WARNING)
+                .message("Se ha detectado un depredador en tu granja")
+                .photoUrl("https://example.com/image.jpg")
+                .timestamp(LocalDateTime.now())
+                .build();
+        request = new RegisterNotificationRequest(notification.getMessage(), notification.getSeverity());
+        // Type maps are created on first use, keep that out of the measurements
+        modelMapper.map(notification, NotificationDto.class);
+        modelMapper.map(request, Notification.class);
+    }
+
+    @Benchmark
+    public NotificationDto modelMapperToDto() {
+        return modelMapper.map(notification, NotificationDto.class);
+    }
+
+    @Benchmark
+    public NotificationDto notificationMapperToDto() {
+        return NotificationMapper.toDto(notification);
+    }
+
+    @Benchmark
+    public Notification modelMapperToEntity() {
+        return modelMapper.map(request, Notification.class);
+    }
+
+    @Benchmark
+    public Notification notificationMapperToEntity() {
+        return NotificationMapper.toEntity(request);
+    }
+}
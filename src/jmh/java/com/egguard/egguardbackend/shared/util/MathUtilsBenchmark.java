@@ -0,0 +1,40 @@
+package com.egguard.egguardbackend.shared.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single distance computation, the innermost operation of the duplicate checks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilsBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final double[] xs = new double[POINTS];
+    private final double[] ys = new double[POINTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = random.nextDouble(-4, 4);
+            ys[i] = random.nextDouble(-7.5, 7.5);
+        }
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        int i = next++ & (POINTS - 1);
+        int j = (i + 1) & (POINTS - 1);
+        return MathUtils.calculateDistance(xs[i], ys[i], xs[j], ys[j]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.egguard.egguardbackend.dashboard;
+
+import com.egguard.egguardbackend.dashboard.exception.DashboardTimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final IDashboardService dashboardService;
+
+    @GetMapping("/{user_id}/dashboard")
+    public ResponseEntity<Object> getUserDashboard(
+            @PathVariable("user_id") Long userId,
+            @RequestParam(required = false, value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false, value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        LocalDate today = LocalDate.now();
+        if (endDate == null) endDate = today;
+        if (startDate == null) startDate = endDate.minusDays(7);
+
+        try {
+            UserDashboardDto dashboard = dashboardService.getUserDashboard(userId, startDate, endDate);
+            return ResponseEntity.ok(dashboard);
+        } catch (DashboardTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.egguard.egguardbackend.dashboard;
+
+import com.egguard.egguardbackend.dashboard.exception.DashboardTimeoutException;
+import com.egguard.egguardbackend.egg.EggRepository;
+import com.egguard.egguardbackend.egg.FarmEggCount;
+import com.egguard.egguardbackend.farm.*;
+import com.egguard.egguardbackend.notification.NotificationDto;
+import com.egguard.egguardbackend.notification.NotificationRepository;
+import com.egguard.egguardbackend.shared.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the dashboard of all the farms of a user at once.
+ * The farms are listed first, then their stats, unpicked eggs, latest notifications and pick latency histograms
+ * not in memory yet are read with one set-based query each, run in parallel on virtual threads under a single deadline.
+ * If any query fails or the deadline passes, the queries still running are cancelled.
+ */
+@Service
+public class DashboardService implements IDashboardService {
+
+    private final UserRepository userRepository;
+    private final FarmRepository farmRepository;
+    private final FarmDailyEggStatsRepository farmDailyEggStatsRepository;
+    private final EggRepository eggRepository;
+    private final NotificationRepository notificationRepository;
+    private final PickLatencyTracker pickLatencyTracker;
+    private final Duration timeout;
+    private final int notificationsPerFarm;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardService(UserRepository userRepository,
+                            FarmRepository farmRepository,
+                            FarmDailyEggStatsRepository farmDailyEggStatsRepository,
+                            EggRepository eggRepository,
+                            NotificationRepository notificationRepository,
+                            PickLatencyTracker pickLatencyTracker,
+                            @Value("${dashboard.timeout:2s}") Duration timeout,
+                            @Value("${dashboard.notifications-per-farm:5}") int notificationsPerFarm) {
+        this.userRepository = userRepository;
+        this.farmRepository = farmRepository;
+        this.farmDailyEggStatsRepository = farmDailyEggStatsRepository;
+        this.eggRepository = eggRepository;
+        this.notificationRepository = notificationRepository;
+        this.pickLatencyTracker = pickLatencyTracker;
+        this.timeout = timeout;
+        this.notificationsPerFarm = notificationsPerFarm;
+    }
+
+    /**
+     * @throws EntityNotFoundException if the user does not exist
+     * @throws DashboardTimeoutException if the dashboard could not be built before the deadline
+     */
+    @Override
+    public UserDashboardDto getUserDashboard(Long userId, LocalDate from, LocalDate to) {
+        if(from.isAfter(to)){
+            throw new IllegalStateException("The dates range can't be negative");
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        List<FarmSummaryDto> farms = farmRepository.findSummariesByUserId(userId);
+        // A user with farms exists, so the existence check is only needed when there are none
+        if (farms.isEmpty() && !userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User with id " + userId + " not found");
+        }
+
+        List<Long> farmIds = farms.stream().map(FarmSummaryDto::id).toList();
+        Map<Long, EggCounts> counts = Map.of();
+        Map<Long, Long> unpicked = Map.of();
+        Map<Long, List<NotificationDto>> notifications = Map.of();
+        Map<Long, PickLatencyPercentiles> percentiles = Map.of();
+        if (!farmIds.isEmpty()) {
+            Future<Map<Long, EggCounts>> countsFuture = executor.submit(() ->
+                    farmDailyEggStatsRepository.sumByFarms(farmIds, from, to).stream()
+                            .collect(Collectors.toMap(FarmEggCounts::farmId, FarmEggCounts::counts)));
+            Future<Map<Long, Long>> unpickedFuture = executor.submit(() ->
+                    eggRepository.countUnpickedByFarms(farmIds).stream()
+                            .collect(Collectors.toMap(FarmEggCount::farmId, FarmEggCount::eggs)));
+            Future<Map<Long, List<NotificationDto>>> notificationsFuture = executor.submit(() ->
+                    notificationRepository.findLatestDtosByFarmIds(farmIds, notificationsPerFarm).stream()
+                            .collect(Collectors.groupingBy(NotificationDto::getFarmId)));
+            Future<Map<Long, PickLatencyPercentiles>> percentilesFuture = executor.submit(() ->
+                    pickLatencyTracker.getPercentiles(farmIds));
+            List<Future<?>> futures = List.of(countsFuture, unpickedFuture, notificationsFuture, percentilesFuture);
+
+            counts = await(countsFuture, deadline, futures);
+            unpicked = await(unpickedFuture, deadline, futures);
+            notifications = await(notificationsFuture, deadline, futures);
+            percentiles = await(percentilesFuture, deadline, futures);
+        }
+
+        Map<Long, EggCounts> farmCounts = counts;
+        Map<Long, Long> farmUnpicked = unpicked;
+        Map<Long, List<NotificationDto>> farmNotifications = notifications;
+        Map<Long, PickLatencyPercentiles> farmPercentiles = percentiles;
+        List<FarmDashboardDto> farmDashboards = farms.stream()
+                .map(farm -> toFarmDashboard(farm,
+                        farmCounts.getOrDefault(farm.id(), EggCounts.ZERO),
+                        farmUnpicked.getOrDefault(farm.id(), 0L),
+                        farmNotifications.getOrDefault(farm.id(), List.of()),
+                        farmPercentiles.get(farm.id())))
+                .toList();
+
+        return UserDashboardDto.builder()
+                .userId(userId)
+                .startDate(from)
+                .endDate(to)
+                .farms(farmDashboards)
+                .build();
+    }
+
+    private FarmDashboardDto toFarmDashboard(FarmSummaryDto farm, EggCounts counts, long unpicked,
+                                             List<NotificationDto> notifications, PickLatencyPercentiles percentiles) {
+        double brokenEggsPercentage = counts.picked() == 0 ? 0.0 : (double) counts.pickedBroken() * 100 / counts.picked();
+        brokenEggsPercentage = Math.round(brokenEggsPercentage * 100.0) / 100.0;
+
+        return FarmDashboardDto.builder()
+                .farmId(farm.id())
+                .name(farm.name())
+                .detectedEggs(counts.detected())
+                .pickedEggs(counts.picked())
+                .brokenEggsPercentage(brokenEggsPercentage)
+                .unpickedEggs(unpicked)
+                .pickLatencyP50Seconds(percentiles != null ? percentiles.p50() : null)
+                .latestNotifications(notifications)
+                .build();
+    }
+
+    /**
+     * Waits for a query until the deadline, cancelling all the queries of the dashboard if it fails or times out
+     */
+    private static <T> T await(Future<T> future, long deadline, List<Future<?>> futures) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new DashboardTimeoutException("The dashboard could not be built in time, retry later");
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DashboardTimeoutException("Interrupted while building the dashboard");
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not build the dashboard", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,21 @@
+package com.egguard.egguardbackend.dashboard;
+
+import com.egguard.egguardbackend.notification.NotificationDto;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FarmDashboardDto {
+    private Long farmId;
+    private String name;
+    private Long detectedEggs;
+    private Long pickedEggs;
+    private Double brokenEggsPercentage;
+    private Long unpickedEggs;
+    private Long pickLatencyP50Seconds;
+    private List<NotificationDto> latestNotifications;
+}
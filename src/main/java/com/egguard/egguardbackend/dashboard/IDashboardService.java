@@ -0,0 +1,7 @@
+package com.egguard.egguardbackend.dashboard;
+
+import java.time.LocalDate;
+
+public interface IDashboardService {
+    public UserDashboardDto getUserDashboard(Long userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,17 @@
+package com.egguard.egguardbackend.dashboard;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDashboardDto {
+    private Long userId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<FarmDashboardDto> farms;
+}
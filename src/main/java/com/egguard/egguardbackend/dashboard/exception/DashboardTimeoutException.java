@@ -0,0 +1,7 @@
+package com.egguard.egguardbackend.dashboard.exception;
+
+public class DashboardTimeoutException extends RuntimeException {
+    public DashboardTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,6 @@ package com.egguard.egguardbackend.egg;
 import com.egguard.egguardbackend.farm.Farm;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -16,7 +15,8 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 public class Egg {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eggs_id_seq")
+    @SequenceGenerator(name = "eggs_id_seq", sequenceName = "eggs_id_seq", allocationSize = 50) // Pooled so inserts can be batched
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +36,20 @@ public class Egg {
     private Boolean broken = false; // Default value
 
     @Column(nullable = false, updatable = false)
-    @CreationTimestamp // Timestamp when the egg was detected/created
-    private LocalDateTime timestamp;
+    private LocalDateTime timestamp; // Timestamp when the egg was detected/created
+
+    @Column(name = "picked_at")
+    private LocalDateTime pickedAt; // Set by the bulk pick statements, null while unpicked
+
+    /**
+     * Sets the detection time when the egg is persisted.
+     * Ids come from a pooled sequence, so the insert is deferred to the flush and a generated
+     * creation timestamp would still be null when the saved egg is mapped to its DTO.
+     */
+    @PrePersist
+    void prePersist() {
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
+    }
 }
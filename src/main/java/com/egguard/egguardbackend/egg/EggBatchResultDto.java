@@ -0,0 +1,14 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.shared.enums.EggRegistrationStatus;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EggBatchResultDto {
+    private Integer index; // Position of the egg in the batch request
+    private EggRegistrationStatus status;
+    private EggDto egg; // Only set when the egg was created
+}
@@ -1,17 +1,26 @@
 package com.egguard.egguardbackend.egg;
 
+import com.egguard.egguardbackend.egg.request.RegisterEggBatchRequest;
 import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.egg.request.PickEggsByPositionRequest;
 import com.egguard.egguardbackend.egg.request.PickEggsRequest;
 import com.egguard.egguardbackend.egg.exception.DuplicateEggException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -19,11 +28,17 @@ import java.util.List;
 public class EggController {
 
     private final IEggService eggService;
+    private final EggIngestionQueue eggIngestionQueue;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/robots/{robot_id}/eggs")
-    public ResponseEntity<EggDto> registerEgg(
+    public ResponseEntity<Object> registerEgg(
             @PathVariable("robot_id") Long robotId,
             @Valid @RequestBody RegisterEggRequest request) {
+        if (eggIngestionQueue.isEnabled()) {
+            EggIngestionDto ingestion = eggIngestionQueue.enqueue(robotId, request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ingestion);
+        }
         try {
             EggDto registeredEgg = eggService.registerEgg(robotId, request);
             return ResponseEntity.status(HttpStatus.CREATED).body(registeredEgg);
@@ -32,6 +47,29 @@ public class EggController {
         }
     }
 
+    @GetMapping("/eggs/ingestions/{tracking_id}")
+    public ResponseEntity<EggIngestionDto> getEggIngestion(@PathVariable("tracking_id") UUID trackingId) {
+        return eggIngestionQueue.getIngestion(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/robots/{robot_id}/eggs/batch")
+    public ResponseEntity<List<EggBatchResultDto>> registerEggs(
+            @PathVariable("robot_id") Long robotId,
+            @Valid @RequestBody RegisterEggBatchRequest request) {
+        List<EggBatchResultDto> results = eggService.registerEggs(robotId, request.getEggs());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/robots/{robot_id}/eggs/picks")
+    public ResponseEntity<List<EggPickResultDto>> pickEggs(
+            @PathVariable("robot_id") Long robotId,
+            @Valid @RequestBody PickEggsByPositionRequest request) {
+        List<EggPickResultDto> results = eggService.pickEggs(robotId, request.getPositions());
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/farms/{farm_id}/eggs")
     public ResponseEntity<List<EggDto>> getEggsByFarm(
             @PathVariable("farm_id") Long farmId,
@@ -41,11 +79,52 @@ public class EggController {
         return ResponseEntity.ok(eggs);
     }
 
+    @GetMapping("/farms/{farm_id}/eggs/page")
+    public ResponseEntity<EggPageDto> getEggsPageByFarm(
+            @PathVariable("farm_id") Long farmId,
+            @RequestParam(required = false) Boolean picked,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        EggPageDto page = eggService.getEggsPageByFarm(farmId, picked, date, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/farms/{farm_id}/eggs/stream")
+    public void streamEggsByFarm(
+            @PathVariable("farm_id") Long farmId,
+            @RequestParam(required = false) Boolean picked,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        // Closing neither flushes nor closes the response, and leaves a failed listing unterminated: nothing is sent
+        // before the first egg, so an unknown farm is still reported, and a truncated listing is not valid JSON
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            eggService.streamEggsByFarm(farmId, picked, date, egg -> {
+                try {
+                    if (generator.getOutputContext().inRoot()) {
+                        generator.writeStartArray();
+                    }
+                    generator.writeObject(egg);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (generator.getOutputContext().inRoot()) {
+                generator.writeStartArray();
+            }
+            generator.writeEndArray();
+        }
+    }
+
     @PatchMapping("/farms/{farm_id}/eggs/picked")
-    public ResponseEntity<Void> markEggsAsPicked(
+    public ResponseEntity<PickEggsResultDto> markEggsAsPicked(
             @PathVariable("farm_id") Long farmId,
             @RequestBody PickEggsRequest request) {
-        eggService.markEggsAsPicked(farmId, request);
-        return ResponseEntity.ok().build();
+        PickEggsResultDto result = eggService.markEggsAsPicked(farmId, request);
+        return ResponseEntity.ok(result);
     }
 }
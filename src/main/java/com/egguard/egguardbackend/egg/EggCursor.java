@@ -0,0 +1,38 @@
+package com.egguard.egguardbackend.egg;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last egg of a page in the (timestamp, id) ordering of egg listings.
+ * Exposed to clients as an opaque URL-safe string.
+ */
+record EggCursor(LocalDateTime timestamp, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static EggCursor of(EggDto egg) {
+        return new EggCursor(egg.getTimestamp(), egg.getId());
+    }
+
+    /**
+     * @throws IllegalStateException if the cursor was not produced by {@link #encode()}
+     */
+    static EggCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new EggCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalStateException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,16 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.shared.enums.EggIngestionStatus;
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EggIngestionDto {
+    private UUID trackingId;
+    private EggIngestionStatus status;
+    private Long eggId; // Only set once the egg has been created
+}
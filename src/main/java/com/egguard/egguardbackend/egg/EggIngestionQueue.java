@@ -0,0 +1,218 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.exception.EggIngestionQueueFullException;
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.shared.enums.EggIngestionStatus;
+import com.egguard.egguardbackend.shared.enums.EggRegistrationStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion of egg detections, enabled with {@code eggs.ingestion.mode=async}.
+ * Detections are buffered in a bounded queue and a background flusher registers them in batches,
+ * either every flush interval or as soon as a full batch is waiting.
+ * On shutdown the queue stops accepting detections and the flusher drains what is left.
+ */
+@Component
+@Slf4j
+public class EggIngestionQueue implements SmartLifecycle {
+
+    private static final int MAX_TRACKED_RESULTS = 10_000;
+
+    private final IEggService eggService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final BlockingQueue<PendingEgg> queue;
+    private final Map<UUID, EggIngestionDto> results = Collections.synchronizedMap(
+            new LinkedHashMap<UUID, EggIngestionDto>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, EggIngestionDto> eldest) {
+                    return size() > MAX_TRACKED_RESULTS;
+                }
+            });
+
+    private final Timer flushTimer;
+    private final Timer ingestionLatencyTimer;
+    private final Counter rejectedCounter;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public EggIngestionQueue(IEggService eggService,
+                             MeterRegistry meterRegistry,
+                             @Value("${eggs.ingestion.mode:sync}") String mode,
+                             @Value("${eggs.ingestion.capacity:10000}") int capacity,
+                             @Value("${eggs.ingestion.batch-size:200}") int batchSize,
+                             @Value("${eggs.ingestion.flush-interval:200ms}") Duration flushInterval) {
+        this.eggService = eggService;
+        this.enabled = "async".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        this.flushTimer = Timer.builder("eggs.ingestion.flush")
+                .description("Time spent registering a batch of queued eggs")
+                .register(meterRegistry);
+        this.ingestionLatencyTimer = Timer.builder("eggs.ingestion.latency")
+                .description("Time between an egg being queued and being registered")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("eggs.ingestion.rejected")
+                .description("Eggs rejected because the ingestion queue was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("eggs.ingestion.queue.size", queue, BlockingQueue::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an egg detection for registration
+     *
+     * @return the ingestion tracking information
+     * @throws EggIngestionQueueFullException if the queue is full or shutting down
+     */
+    public EggIngestionDto enqueue(Long robotId, RegisterEggRequest request) {
+        UUID trackingId = UUID.randomUUID();
+        EggIngestionDto ingestion = EggIngestionDto.builder()
+                .trackingId(trackingId)
+                .status(EggIngestionStatus.QUEUED)
+                .build();
+        // Tracked before queuing so the flusher result can never be overwritten by the queued state
+        results.put(trackingId, ingestion);
+        if (!accepting || !queue.offer(new PendingEgg(trackingId, robotId, request, System.nanoTime()))) {
+            results.remove(trackingId);
+            rejectedCounter.increment();
+            // The queue frees up as the flusher drains it, the next flush is the earliest worth retrying after
+            throw new EggIngestionQueueFullException("The egg ingestion queue is full, retry later", flushInterval);
+        }
+        return ingestion;
+    }
+
+    /**
+     * @return the current state of a queued egg, if it is still tracked
+     */
+    public Optional<EggIngestionDto> getIngestion(UUID trackingId) {
+        return Optional.ofNullable(results.get(trackingId));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        accepting = true;
+        running = true;
+        flusher = Thread.ofPlatform().name("egg-ingestion-flusher").start(this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Egg ingestion queue drained");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stops after the web server, so no request can be queued once the queue is drained
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        List<PendingEgg> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEgg first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingEgg next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Registers a batch of queued eggs, one batch registration per robot
+     */
+    void flush(List<PendingEgg> batch) {
+        flushTimer.record(() -> {
+            Map<Long, List<PendingEgg>> eggsByRobot = new LinkedHashMap<>();
+            batch.forEach(egg -> eggsByRobot.computeIfAbsent(egg.robotId(), id -> new ArrayList<>()).add(egg));
+            eggsByRobot.forEach(this::flushRobotEggs);
+        });
+    }
+
+    private void flushRobotEggs(Long robotId, List<PendingEgg> eggs) {
+        try {
+            List<EggBatchResultDto> batchResults = eggService.registerEggs(robotId,
+                    eggs.stream().map(PendingEgg::request).toList());
+            for (EggBatchResultDto result : batchResults) {
+                PendingEgg egg = eggs.get(result.getIndex());
+                boolean created = result.getStatus() == EggRegistrationStatus.CREATED;
+                complete(egg, created ? EggIngestionStatus.CREATED : EggIngestionStatus.DUPLICATE,
+                        created ? result.getEgg().getId() : null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to register {} queued eggs of robot {}", eggs.size(), robotId, e);
+            eggs.forEach(egg -> complete(egg, EggIngestionStatus.FAILED, null));
+        }
+    }
+
+    private void complete(PendingEgg egg, EggIngestionStatus status, Long eggId) {
+        ingestionLatencyTimer.record(System.nanoTime() - egg.queuedAt(), TimeUnit.NANOSECONDS);
+        results.put(egg.trackingId(), EggIngestionDto.builder()
+                .trackingId(egg.trackingId())
+                .status(status)
+                .eggId(eggId)
+                .build());
+    }
+
+    record PendingEgg(UUID trackingId, Long robotId, RegisterEggRequest request, long queuedAt) {
+    }
+}
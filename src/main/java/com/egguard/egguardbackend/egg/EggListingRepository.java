@@ -0,0 +1,26 @@
+package com.egguard.egguardbackend.egg;
+
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listings of the eggs of a farm, whose queries only filter on the criteria actually given.
+ * Null picked or start values disable the matching filter.
+ */
+public interface EggListingRepository {
+
+    // Read-only listing, selects only the DTO columns and bypasses the persistence context
+    List<EggDto> findDtosByFarm(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end);
+
+    // Keyset pagination, newest eggs first, served by the (farm_id, timestamp, id) index
+    List<EggDto> findPageByFarm(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end, Limit limit);
+
+    List<EggDto> findPageByFarmAfter(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end,
+                                     LocalDateTime cursorTimestamp, Long cursorId, Limit limit);
+
+    // Must be consumed inside a transaction, the fetch size makes the driver read rows in chunks
+    Stream<EggDto> streamByFarm(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end);
+}
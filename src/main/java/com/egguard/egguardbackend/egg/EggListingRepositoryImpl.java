@@ -0,0 +1,93 @@
+package com.egguard.egguardbackend.egg;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds one query per combination of filters instead of "(:picked is null or ...)" catch-alls, which get a generic
+ * plan where only farm_id is an index condition.
+ * The keyset cursor is a row-value comparison, which Postgres turns into an index range, so every page reads only
+ * its own rows. With a cursor, EXPLAIN shows
+ * "Index Scan using eggs_farm_timestamp_id_idx ... Index Cond: ((farm_id = $1) AND (ROW(timestamp, id) < ROW($2, $3)))".
+ */
+@RequiredArgsConstructor
+public class EggListingRepositoryImpl implements EggListingRepository {
+
+    private static final String EGG_DTO_SELECT = "select new com.egguard.egguardbackend.egg.EggDto("
+            + "e.id, e.farm.id, e.coordX, e.coordY, e.broken, e.picked, e.timestamp) from Egg e ";
+    private static final String NEWEST_FIRST = "order by e.timestamp desc, e.id desc";
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<EggDto> findDtosByFarm(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end) {
+        return query(farmId, picked, start, end, null, null, false).getResultList();
+    }
+
+    @Override
+    public List<EggDto> findPageByFarm(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end,
+                                       Limit limit) {
+        return query(farmId, picked, start, end, null, null, true)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public List<EggDto> findPageByFarmAfter(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end,
+                                            LocalDateTime cursorTimestamp, Long cursorId, Limit limit) {
+        return query(farmId, picked, start, end, cursorTimestamp, cursorId, true)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public Stream<EggDto> streamByFarm(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end) {
+        return query(farmId, picked, start, end, null, null, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<EggDto> query(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end,
+                                     LocalDateTime cursorTimestamp, Long cursorId, boolean newestFirst) {
+        TypedQuery<EggDto> query = entityManager.createQuery(
+                jpql(picked != null, start != null, cursorTimestamp != null, newestFirst), EggDto.class);
+        query.setParameter("farmId", farmId);
+        if (picked != null) {
+            query.setParameter("picked", picked);
+        }
+        if (start != null) {
+            query.setParameter("start", start);
+            query.setParameter("end", end);
+        }
+        if (cursorTimestamp != null) {
+            query.setParameter("cursorTimestamp", cursorTimestamp);
+            query.setParameter("cursorId", cursorId);
+        }
+        return query;
+    }
+
+    static String jpql(boolean picked, boolean dated, boolean afterCursor, boolean newestFirst) {
+        StringBuilder jpql = new StringBuilder(EGG_DTO_SELECT).append("where e.farm.id = :farmId ");
+        if (picked) {
+            jpql.append("and e.picked = :picked ");
+        }
+        if (dated) {
+            jpql.append("and e.timestamp between :start and :end ");
+        }
+        if (afterCursor) {
+            jpql.append("and (e.timestamp, e.id) < (:cursorTimestamp, :cursorId) ");
+        }
+        if (newestFirst) {
+            jpql.append(NEWEST_FIRST);
+        }
+        return jpql.toString();
+    }
+}
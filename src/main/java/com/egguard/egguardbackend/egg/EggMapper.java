@@ -0,0 +1,33 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+
+/**
+ * Maps eggs between requests, entities and DTOs with plain accessors, without reflection
+ */
+public final class EggMapper {
+
+    private EggMapper() {
+    }
+
+    public static Egg toEntity(RegisterEggRequest request) {
+        return Egg.builder()
+                .coordX(request.getCoordX())
+                .coordY(request.getCoordY())
+                .broken(request.getBroken())
+                .picked(false)
+                .build();
+    }
+
+    public static EggDto toDto(Egg egg) {
+        return new EggDto(
+                egg.getId(),
+                egg.getFarm() != null ? egg.getFarm().getId() : null,
+                egg.getCoordX(),
+                egg.getCoordY(),
+                egg.getBroken(),
+                egg.getPicked(),
+                egg.getTimestamp()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.egguard.egguardbackend.egg;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EggPageDto {
+    private List<EggDto> eggs;
+    // Cursor of the next page, null on the last page
+    private String nextCursor;
+}
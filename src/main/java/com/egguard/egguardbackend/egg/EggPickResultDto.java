@@ -0,0 +1,14 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.shared.enums.EggPickStatus;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EggPickResultDto {
+    private Integer index; // Position of the picked coordinates in the request
+    private EggPickStatus status;
+    private Long eggId; // Only set when an egg was matched
+}
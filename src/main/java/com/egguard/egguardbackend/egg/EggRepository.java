@@ -1,15 +1,89 @@
 package com.egguard.egguardbackend.egg;
 
+import com.egguard.egguardbackend.farm.DailyEggCounts;
+import com.egguard.egguardbackend.farm.PickLatencyBucketCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface EggRepository extends JpaRepository<Egg, Long> {
-    List<Egg> findByFarmId(Long farmId);
+public interface EggRepository extends JpaRepository<Egg, Long>, EggListingRepository {
     List<Egg> findByFarmIdAndPicked(Long farmId, Boolean picked);
-    List<Egg> findByFarmIdAndPickedAndTimestampBetween(Long farmId, Boolean picked, LocalDateTime start, LocalDateTime end);
-    List<Egg> findByFarmIdAndTimestampBetween(Long farmId, LocalDateTime start, LocalDateTime end);
+    // Bounding-box lookup served by the partial index on unpicked eggs coordinates
+    List<Egg> findByFarmIdAndPickedFalseAndBrokenAndCoordXBetweenAndCoordYBetween(
+            Long farmId, Boolean broken, Double minX, Double maxX, Double minY, Double maxY);
+    List<Egg> findByFarmIdAndPickedFalseAndCoordXBetweenAndCoordYBetween(
+            Long farmId, Double minX, Double maxX, Double minY, Double maxY);
+
+    // Counts per detection day in one aggregate query, without transferring egg rows
+    @Query("select new com.egguard.egguardbackend.farm.DailyEggCounts(cast(e.timestamp as LocalDate), count(*), "
+            + "count(*) filter (where e.picked = true), count(*) filter (where e.picked = true and e.broken = true)) "
+            + "from Egg e where e.farm.id = :farmId and e.timestamp between :start and :end "
+            + "group by cast(e.timestamp as LocalDate)")
+    List<DailyEggCounts> countDailyByFarmAndTimestampBetween(@Param("farmId") Long farmId,
+                                                            @Param("start") LocalDateTime start,
+                                                            @Param("end") LocalDateTime end);
+
+    @Query("select distinct cast(e.timestamp as LocalDate) from Egg e where e.id in :ids")
+    List<LocalDate> findDetectionDaysByIds(@Param("ids") Collection<Long> ids);
+
+    // Served by the partial index on unpicked eggs, farms without unpicked eggs are left out
+    @Query("select new com.egguard.egguardbackend.egg.FarmEggCount(e.farm.id, count(e)) "
+            + "from Egg e where e.farm.id in :farmIds and e.picked = false group by e.farm.id")
+    List<FarmEggCount> countUnpickedByFarms(@Param("farmIds") Collection<Long> farmIds);
+
+    // Grouped by the database, one row per non-empty bucket
+    @Query(value = "select cast(extract(epoch from date_trunc(:unit, timestamp)) as bigint) as bucket, "
+            + "count(*) as detected, count(*) filter (where picked) as picked, count(*) filter (where broken) as broken "
+            + "from eggs where farm_id = :farmId and timestamp >= :start and timestamp < :end "
+            + "group by 1 order by 1", nativeQuery = true)
+    List<EggSeriesBucket> countSeriesByFarm(@Param("farmId") Long farmId, @Param("unit") String unit,
+                                            @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Bulk pick statements also add the picked eggs to the daily stats of their detection day,
+    // in the same statement so the counters can never drift from the eggs
+    String ROLLUP_PICKED = "rollup as (insert into farm_daily_egg_stats (farm_id, day, detected, picked, picked_broken) "
+            + "select farm_id, cast(timestamp as date), 0, count(*), count(*) filter (where broken) from picked "
+            + "group by farm_id, cast(timestamp as date) "
+            + "on conflict (farm_id, day) do update set picked = farm_daily_egg_stats.picked + excluded.picked, "
+            + "picked_broken = farm_daily_egg_stats.picked_broken + excluded.picked_broken) ";
+
+    // Seconds a picked egg waited since its detection
+    String PICK_LATENCY = "cast(extract(epoch from (picked_at - timestamp)) as bigint)";
+
+    // Bucket of PickLatencyHistogram.bucketOf, computed by the database: latencies are clamped to the histogram
+    // range, values below 8 have their own bucket, above each power of two is split into 8 linear buckets
+    String PICK_LATENCY_BUCKETS = "latencies as (select least(greatest(" + PICK_LATENCY + ", 0), 4294967295) as seconds "
+            + "from picked), "
+            + "magnitudes as (select seconds, length(ltrim(cast(cast(seconds as bit(64)) as text), '0')) as bits "
+            + "from latencies) "
+            + "select cast(case when seconds < 8 then seconds "
+            + "else (bits - 3) * 8 + ((seconds >> (bits - 4)) & 7) end as integer) as bucket, count(*) as count "
+            + "from magnitudes group by 1";
+
+    // Single set-based update, served by the partial index on unpicked eggs.
+    // Returns the pick latency histogram buckets of the picked eggs, a few rows however many eggs are picked
+    @Query(value = "with picked as (update eggs set picked = true, picked_at = :pickedAt "
+            + "where farm_id = :farmId and picked = false and timestamp < :before "
+            + "returning farm_id, timestamp, broken, picked_at), " + ROLLUP_PICKED + ", "
+            + PICK_LATENCY_BUCKETS, nativeQuery = true)
+    List<PickLatencyBucketCount> markPickedBefore(@Param("farmId") Long farmId, @Param("before") LocalDateTime before,
+                                @Param("pickedAt") LocalDateTime pickedAt);
+
+    // Eggs picked in the meantime are left out of the returned rows, one row per egg actually picked
+    @Query(value = "with picked as (update eggs set picked = true, picked_at = :pickedAt "
+            + "where id in (:ids) and picked = false "
+            + "returning id, farm_id, timestamp, broken, picked_at), " + ROLLUP_PICKED
+            + "select id, " + PICK_LATENCY + " as latency from picked", nativeQuery = true)
+    List<PickedEgg> markPickedByIds(@Param("ids") Collection<Long> ids, @Param("pickedAt") LocalDateTime pickedAt);
+
+    // Blocks until the transaction-level advisory lock is granted, it is released when the transaction ends
+    @Query(value = "select 1 from pg_advisory_xact_lock(:key)", nativeQuery = true)
+    Integer acquireAdvisoryTransactionLock(@Param("key") Long key);
 }
\ No newline at end of file
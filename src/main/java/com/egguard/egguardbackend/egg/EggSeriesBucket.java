@@ -0,0 +1,11 @@
+package com.egguard.egguardbackend.egg;
+
+/**
+ * Egg counters of one time bucket of a farm, identified by the epoch second of its start
+ */
+public interface EggSeriesBucket {
+    Long getBucket();
+    Long getDetected();
+    Long getPicked();
+    Long getBroken();
+}
@@ -1,82 +1,215 @@
 package com.egguard.egguardbackend.egg;
 
+import com.egguard.egguardbackend.egg.request.EggPositionRequest;
 import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
 import com.egguard.egguardbackend.egg.request.PickEggsRequest;
 import com.egguard.egguardbackend.farm.Farm;
-import com.egguard.egguardbackend.shared.entity.Robot;
+import com.egguard.egguardbackend.farm.FarmDailyEggStatsRepository;
+import com.egguard.egguardbackend.farm.FarmStatsCache;
+import com.egguard.egguardbackend.farm.PickLatencyBucketCount;
+import com.egguard.egguardbackend.farm.PickLatencyTracker;
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
 import com.egguard.egguardbackend.farm.FarmRepository;
-import com.egguard.egguardbackend.shared.repository.RobotRepository;
+import com.egguard.egguardbackend.shared.service.IRobotCacheService;
+import com.egguard.egguardbackend.shared.enums.EggDedupMode;
+import com.egguard.egguardbackend.shared.enums.EggPickStatus;
+import com.egguard.egguardbackend.shared.enums.EggRegistrationStatus;
 import com.egguard.egguardbackend.shared.util.MathUtils;
+import com.egguard.egguardbackend.shared.util.TransactionUtils;
 import com.egguard.egguardbackend.egg.exception.DuplicateEggException;
+import com.egguard.egguardbackend.egg.lock.EggAreaLock;
+import com.egguard.egguardbackend.egg.lock.IEggLockService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.jetbrains.annotations.NotNull;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class EggService implements IEggService {
 
     private final EggRepository eggRepository;
-    private final RobotRepository robotRepository;
+    private final IRobotCacheService robotCacheService;
     private final FarmRepository farmRepository;
-    private final ModelMapper modelMapper;
+    private final EggSpatialIndex eggSpatialIndex;
+    private final IEggLockService eggLockService;
+    private final FarmDailyEggStatsRepository farmDailyEggStatsRepository;
+    private final FarmStatsCache farmStatsCache;
+    private final PickLatencyTracker pickLatencyTracker;
 
     /**
      * The threshold distance below which two eggs are considered at the same position
      */
-    private static final double DUPLICATE_DISTANCE_THRESHOLD = 0.05;
+    public static final double DUPLICATE_DISTANCE_THRESHOLD = 0.05;
+
+    private static final double DUPLICATE_DISTANCE_THRESHOLD_SQUARED =
+            DUPLICATE_DISTANCE_THRESHOLD * DUPLICATE_DISTANCE_THRESHOLD;
+
+    /**
+     * The maximum number of eggs returned in one page of an egg listing
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Where duplicate checks are answered: the in-memory spatial index or a bounding-box query
+     */
+    @Value("${eggs.dedup-mode:memory}")
+    private EggDedupMode dedupMode = EggDedupMode.MEMORY;
 
     @Override
     @Transactional
     public EggDto registerEgg(Long robotId, RegisterEggRequest request) {
-        Robot robot = robotRepository.findById(robotId)
-                .orElseThrow(() -> new EntityNotFoundException("Robot not found with id: " + robotId));
-        Farm farm = robot.getFarm();
-        if (farm == null) {
-            throw new IllegalStateException("Robot with id " + robotId + " is not associated with any farm.");
-        }
+        Farm farm = getRobotFarm(robotId);
 
-        List<Egg> unpickedEggs = eggRepository.findByFarmIdAndPicked(farm.getId(), false);
-        
-        for (Egg existingEgg : unpickedEggs) {
-            if (isDuplicate(existingEgg, request)) {
+        // Check and insert must not interleave with registrations of nearby eggs
+        try (EggAreaLock lock = eggLockService.lock(farm.getId(), List.of(request))) {
+            if (isDuplicate(farm.getId(), request)) {
                 throw new DuplicateEggException("An egg already exists at this location with the same status");
             }
+
+            Egg egg = EggMapper.toEntity(request);
+            egg.setFarm(farm);
+            egg.setTimestamp(LocalDateTime.now());
+            Egg savedEgg = eggRepository.save(egg);
+            recordDetected(farm.getId(), List.of(savedEgg));
+            TransactionUtils.afterCommit(() -> eggSpatialIndex.add(farm.getId(), savedEgg));
+            return EggMapper.toDto(savedEgg);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<EggBatchResultDto> registerEggs(Long robotId, List<RegisterEggRequest> requests) {
+        Farm farm = getRobotFarm(robotId);
+        try (EggAreaLock lock = eggLockService.lock(farm.getId(), requests)) {
+            return registerEggs(farm, requests);
+        }
+    }
+
+    private List<EggBatchResultDto> registerEggs(Farm farm, List<RegisterEggRequest> requests) {
+        List<EggBatchResultDto> results = new ArrayList<>(requests.size());
+        List<Egg> acceptedEggs = new ArrayList<>();
+        List<EggBatchResultDto> createdResults = new ArrayList<>();
+        LocalDateTime detectedAt = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterEggRequest request = requests.get(i);
+            EggBatchResultDto result = EggBatchResultDto.builder().index(i).build();
+            results.add(result);
+
+            if (isDuplicateWithinBatch(acceptedEggs, request) || isDuplicate(farm.getId(), request)) {
+                result.setStatus(EggRegistrationStatus.DUPLICATE);
+                continue;
+            }
+
+            Egg egg = EggMapper.toEntity(request);
+            egg.setFarm(farm);
+            egg.setTimestamp(detectedAt);
+            acceptedEggs.add(egg);
+            createdResults.add(result);
+        }
+
+        if (acceptedEggs.isEmpty()) {
+            return results;
+        }
+
+        // Ids come from a pooled sequence, so all accepted eggs are written in JDBC batches
+        List<Egg> savedEggs = eggRepository.saveAll(acceptedEggs);
+        recordDetected(farm.getId(), savedEggs);
+        TransactionUtils.afterCommit(() -> savedEggs.forEach(egg -> eggSpatialIndex.add(farm.getId(), egg)));
+
+        for (int i = 0; i < savedEggs.size(); i++) {
+            EggBatchResultDto result = createdResults.get(i);
+            result.setStatus(EggRegistrationStatus.CREATED);
+            result.setEgg(EggMapper.toDto(savedEggs.get(i)));
         }
+        return results;
+    }
+
+    /**
+     * Adds newly registered eggs to the daily stats of their detection day
+     */
+    private void recordDetected(Long farmId, List<Egg> savedEggs) {
+        Map<LocalDate, Long> detectedByDay = savedEggs.stream()
+                .collect(Collectors.groupingBy(egg -> egg.getTimestamp().toLocalDate(), Collectors.counting()));
+        detectedByDay.forEach((day, detected) -> farmDailyEggStatsRepository.addDetected(farmId, day, detected));
+        // Usually today, which is never cached, but a registration may commit just after midnight
+        TransactionUtils.afterCommit(() -> detectedByDay.keySet().forEach(day -> farmStatsCache.invalidate(farmId, day)));
+    }
 
-        Egg egg = modelMapper.map(request, Egg.class);
-        egg.setFarm(farm);
-        Egg savedEgg = eggRepository.save(egg);
-        return modelMapper.map(savedEgg, EggDto.class);
+    private Farm getRobotFarm(Long robotId) {
+        RobotFarmDto robot = robotCacheService.findRobot(robotId)
+                .orElseThrow(() -> new EntityNotFoundException("Robot not found with id: " + robotId));
+        if (robot.getFarmId() == null) {
+            throw new IllegalStateException("Robot with id " + robotId + " is not associated with any farm.");
+        }
+        // Only a reference is needed to associate the egg, no query is made
+        return farmRepository.getReferenceById(robot.getFarmId());
     }
     
     /**
-     * Checks if an existing egg and a new egg request represent the same egg
-     * Considers position and status (picked and broken)
+     * Checks if a new egg request represents an unpicked egg already registered in the farm
+     * Considers position and broken status, only looking at eggs around the requested position
      * 
-     * @param existingEgg The existing egg from the database
+     * @param farmId The farm the egg is registered in
      * @param request The new egg registration request
-     * @return true if the eggs are considered duplicates, false otherwise
+     * @return true if the egg is considered a duplicate, false otherwise
      */
-    private boolean isDuplicate(@NotNull Egg existingEgg, @NotNull RegisterEggRequest request) {
-        double distance = MathUtils.calculateDistance(
-            existingEgg.getCoordX(), existingEgg.getCoordY(),
-            request.getCoordX(), request.getCoordY()
-        );
+    private boolean isDuplicate(Long farmId, RegisterEggRequest request) {
+        if (dedupMode == EggDedupMode.DATABASE) {
+            return isDuplicateInDatabase(farmId, request);
+        }
+        return eggSpatialIndex.containsDuplicate(farmId, request.getCoordX(), request.getCoordY(), request.getBroken(),
+                () -> eggRepository.findByFarmIdAndPicked(farmId, false));
+    }
 
-        boolean sameLocation = distance <= DUPLICATE_DISTANCE_THRESHOLD;
-        boolean sameBrokenState = existingEgg.getBroken() == request.getBroken();
+    /**
+     * Fetches the unpicked eggs inside the threshold-sized box around the requested position
+     * and applies the exact distance check on those few candidates
+     */
+    private boolean isDuplicateInDatabase(Long farmId, RegisterEggRequest request) {
+        double x = request.getCoordX();
+        double y = request.getCoordY();
+        List<Egg> candidates = eggRepository.findByFarmIdAndPickedFalseAndBrokenAndCoordXBetweenAndCoordYBetween(
+                farmId, request.getBroken(),
+                x - DUPLICATE_DISTANCE_THRESHOLD, x + DUPLICATE_DISTANCE_THRESHOLD,
+                y - DUPLICATE_DISTANCE_THRESHOLD, y + DUPLICATE_DISTANCE_THRESHOLD
+        );
+        return candidates.stream()
+                .anyMatch(egg -> MathUtils.squaredDistance(egg.getCoordX(), egg.getCoordY(), x, y)
+                        <= DUPLICATE_DISTANCE_THRESHOLD_SQUARED);
+    }
 
-        return sameLocation && sameBrokenState;
+    /**
+     * Checks if a new egg request represents an egg already accepted earlier in the same batch
+     */
+    private boolean isDuplicateWithinBatch(List<Egg> acceptedEggs, RegisterEggRequest request) {
+        for (Egg acceptedEgg : acceptedEggs) {
+            double squaredDistance = MathUtils.squaredDistance(
+                acceptedEgg.getCoordX(), acceptedEgg.getCoordY(),
+                request.getCoordX(), request.getCoordY()
+            );
+            if (squaredDistance <= DUPLICATE_DISTANCE_THRESHOLD_SQUARED && acceptedEgg.getBroken().equals(request.getBroken())) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
@@ -87,31 +220,69 @@ public class EggService implements IEggService {
             throw new EntityNotFoundException("Farm not found with id: " + farmId);
         }
 
-        List<Egg> eggs;
+        LocalDateTime start = date != null ? date.atStartOfDay() : null;
+        LocalDateTime end = date != null ? date.atTime(LocalTime.MAX) : null;
+        return eggRepository.findDtosByFarm(farmId, picked, start, end);
+    }
 
-        if (date != null) {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+    /**
+     * Gets one page of the eggs of a farm, newest first.
+     * Pages are delimited by a cursor on (timestamp, id) rather than an offset, so every page costs the same
+     * no matter how deep into the history it is.
+     *
+     * @param cursor The next cursor of the previous page, null for the first page
+     * @param size The maximum number of eggs in the page
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EggPageDto getEggsPageByFarm(Long farmId, Boolean picked, LocalDate date, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalStateException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!farmRepository.existsById(farmId)) {
+            throw new EntityNotFoundException("Farm not found with id: " + farmId);
+        }
 
-            if (picked != null) {
-                eggs = eggRepository.findByFarmIdAndPickedAndTimestampBetween(farmId, picked, startOfDay, endOfDay);
-            } else {
-                eggs = eggRepository.findByFarmIdAndTimestampBetween(farmId, startOfDay, endOfDay);
-            }
-        } else if (picked != null) {
-            eggs = eggRepository.findByFarmIdAndPicked(farmId, picked);
+        LocalDateTime start = date != null ? date.atStartOfDay() : null;
+        LocalDateTime end = date != null ? date.atTime(LocalTime.MAX) : null;
+        // One extra egg tells whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        List<EggDto> eggs;
+        if (cursor != null) {
+            EggCursor after = EggCursor.decode(cursor);
+            eggs = eggRepository.findPageByFarmAfter(farmId, picked, start, end, after.timestamp(), after.id(), limit);
         } else {
-            eggs = eggRepository.findByFarmId(farmId);
+            eggs = eggRepository.findPageByFarm(farmId, picked, start, end, limit);
         }
 
-        return eggs.stream()
-                .map(egg -> modelMapper.map(egg, EggDto.class))
-                .collect(Collectors.toList());
+        if (eggs.size() <= size) {
+            return new EggPageDto(eggs, null);
+        }
+        List<EggDto> page = eggs.subList(0, size);
+        return new EggPageDto(page, EggCursor.of(page.getLast()).encode());
+    }
+
+    /**
+     * Hands every egg of a farm, newest first, to a consumer as rows are read from the database,
+     * without holding the whole result in memory
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamEggsByFarm(Long farmId, Boolean picked, LocalDate date, Consumer<EggDto> consumer) {
+        if (!farmRepository.existsById(farmId)) {
+            throw new EntityNotFoundException("Farm not found with id: " + farmId);
+        }
+
+        LocalDateTime start = date != null ? date.atStartOfDay() : null;
+        LocalDateTime end = date != null ? date.atTime(LocalTime.MAX) : null;
+        try (Stream<EggDto> eggs = eggRepository.streamByFarm(farmId, picked, start, end)) {
+            eggs.forEach(consumer);
+        }
     }
 
     @Override
     @Transactional
-    public void markEggsAsPicked(Long farmId, PickEggsRequest pickEggsRequest) {
+    public PickEggsResultDto markEggsAsPicked(Long farmId, PickEggsRequest pickEggsRequest) {
          if (!farmRepository.existsById(farmId)) {
             throw new EntityNotFoundException("Farm not found with id: " + farmId);
         }
@@ -119,13 +290,85 @@ public class EggService implements IEggService {
         LocalDateTime beforeTimestamp = (pickEggsRequest != null && pickEggsRequest.getBefore() != null)
                 ? pickEggsRequest.getBefore() : LocalDateTime.now(); // Default to now if no time specified
 
-        // Find eggs in the farm that are not picked and optionally before the timestamp
-        List<Egg> eggsToPick = eggRepository.findByFarmIdAndPicked(farmId, false).stream()
-                .filter(egg -> egg.getTimestamp().isBefore(beforeTimestamp))
-                .collect(Collectors.toList());
-        if (!eggsToPick.isEmpty()) {
-            eggsToPick.forEach(egg -> egg.setPicked(true));
-            eggRepository.saveAll(eggsToPick);
+        List<PickLatencyBucketCount> pickLatencyBuckets =
+                eggRepository.markPickedBefore(farmId, beforeTimestamp, LocalDateTime.now());
+        long pickedEggs = pickLatencyBuckets.stream().mapToLong(PickLatencyBucketCount::getCount).sum();
+        if (pickedEggs > 0) {
+            // The picked eggs are not loaded, so the farm grid is rebuilt from the eggs still unpicked
+            // and every cached stats day they may have been detected on is dropped
+            TransactionUtils.afterCommit(() -> {
+                eggSpatialIndex.evict(farmId);
+                farmStatsCache.invalidateUntil(farmId, beforeTimestamp.toLocalDate());
+                pickLatencyTracker.recordBuckets(farmId, pickLatencyBuckets);
+            });
+        }
+        return new PickEggsResultDto(pickedEggs);
+    }
+
+    /**
+     * Marks as picked the eggs a robot reports having picked, matching each reported position
+     * to the nearest unpicked egg within the duplicate distance threshold.
+     * Each egg is matched at most once, all matched eggs are updated with a single statement.
+     * A matched egg picked concurrently in the meantime is reported as not found.
+     */
+    @Override
+    @Transactional
+    public List<EggPickResultDto> pickEggs(Long robotId, List<EggPositionRequest> positions) {
+        Long farmId = getRobotFarm(robotId).getId();
+        List<Long> matchedIdByPosition = new ArrayList<>(positions.size());
+        Set<Long> matchedIds = new HashSet<>();
+        List<Egg> matchedEggs = new ArrayList<>();
+
+        for (EggPositionRequest position : positions) {
+            Optional<Egg> nearestEgg = findNearestUnpicked(farmId, position, matchedIds);
+            matchedIdByPosition.add(nearestEgg.map(Egg::getId).orElse(null));
+            nearestEgg.ifPresent(egg -> {
+                matchedIds.add(egg.getId());
+                matchedEggs.add(egg);
+            });
+        }
+
+        Set<Long> pickedIds = new HashSet<>();
+        if (!matchedIds.isEmpty()) {
+            List<LocalDate> detectionDays = eggRepository.findDetectionDaysByIds(matchedIds);
+            List<PickedEgg> pickedEggs = eggRepository.markPickedByIds(matchedIds, LocalDateTime.now());
+            pickedEggs.forEach(pickedEgg -> pickedIds.add(pickedEgg.getId()));
+            List<Long> pickLatencies = pickedEggs.stream().map(PickedEgg::getLatency).toList();
+            // Every matched egg is dropped from the index, those not updated were already picked
+            TransactionUtils.afterCommit(() -> {
+                eggSpatialIndex.removeAll(farmId, matchedEggs);
+                detectionDays.forEach(day -> farmStatsCache.invalidate(farmId, day));
+                pickLatencyTracker.record(farmId, pickLatencies);
+            });
+        }
+
+        List<EggPickResultDto> results = new ArrayList<>(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            Long eggId = matchedIdByPosition.get(i);
+            if (eggId != null && pickedIds.contains(eggId)) {
+                results.add(new EggPickResultDto(i, EggPickStatus.PICKED, eggId));
+            } else {
+                results.add(new EggPickResultDto(i, EggPickStatus.NOT_FOUND, null));
+            }
+        }
+        return results;
+    }
+
+    private Optional<Egg> findNearestUnpicked(Long farmId, EggPositionRequest position, Set<Long> excludedIds) {
+        double x = position.getCoordX();
+        double y = position.getCoordY();
+        if (dedupMode == EggDedupMode.DATABASE) {
+            return eggRepository.findByFarmIdAndPickedFalseAndCoordXBetweenAndCoordYBetween(
+                            farmId,
+                            x - DUPLICATE_DISTANCE_THRESHOLD, x + DUPLICATE_DISTANCE_THRESHOLD,
+                            y - DUPLICATE_DISTANCE_THRESHOLD, y + DUPLICATE_DISTANCE_THRESHOLD
+                    ).stream()
+                    .filter(egg -> !excludedIds.contains(egg.getId()))
+                    .filter(egg -> MathUtils.squaredDistance(egg.getCoordX(), egg.getCoordY(), x, y)
+                            <= DUPLICATE_DISTANCE_THRESHOLD_SQUARED)
+                    .min(Comparator.comparingDouble(egg -> MathUtils.squaredDistance(egg.getCoordX(), egg.getCoordY(), x, y)));
         }
+        return eggSpatialIndex.findNearest(farmId, x, y, excludedIds,
+                () -> eggRepository.findByFarmIdAndPicked(farmId, false));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,318 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.dedup.EggDedupKernel;
+import com.egguard.egguardbackend.egg.dedup.EggDedupKernels;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory uniform grid of the unpicked eggs of every farm, used to answer duplicate checks
+ * without going to the database.
+ * Cells are as wide as the duplicate distance threshold, so any egg close enough to a position
+ * lies either in the position's cell or in one of its 8 neighbours.
+ * Each cell stores its eggs column-wise in primitive arrays, scanned by the {@link EggDedupKernel}
+ * selected at startup.
+ * The grid of a farm is loaded from the database the first time it is needed and kept up to date
+ * as eggs are registered and picked.
+ */
+@Component
+public class EggSpatialIndex {
+
+    private final double cellSize;
+    private final EggDedupKernel dedupKernel;
+    private final Map<Long, FarmGrid> grids = new ConcurrentHashMap<>();
+
+    public EggSpatialIndex() {
+        this(EggService.DUPLICATE_DISTANCE_THRESHOLD, EggDedupKernels.select());
+    }
+
+    EggSpatialIndex(double cellSize, EggDedupKernel dedupKernel) {
+        this.cellSize = cellSize;
+        this.dedupKernel = dedupKernel;
+    }
+
+    /**
+     * Checks if an unpicked egg with the same broken state exists within the threshold distance of a position
+     *
+     * @param farmId The farm to look in
+     * @param coordX x-coordinate of the position
+     * @param coordY y-coordinate of the position
+     * @param broken broken state of the new egg
+     * @param loader Supplies the unpicked eggs of the farm if its grid is not loaded yet
+     * @return true if a duplicate egg exists, false otherwise
+     */
+    public boolean containsDuplicate(Long farmId, double coordX, double coordY, boolean broken,
+                                     Supplier<List<Egg>> loader) {
+        return grid(farmId, loader).containsDuplicate(coordX, coordY, broken, cellSize, dedupKernel);
+    }
+
+    /**
+     * Finds the unpicked egg closest to a position, within the threshold distance
+     *
+     * @param farmId The farm to look in
+     * @param coordX x-coordinate of the position
+     * @param coordY y-coordinate of the position
+     * @param excludedIds Eggs that must not be matched, e.g. already matched earlier in the same request
+     * @param loader Supplies the unpicked eggs of the farm if its grid is not loaded yet
+     * @return an egg holding the indexed id, coordinates and broken state, if any egg is close enough
+     */
+    public Optional<Egg> findNearest(Long farmId, double coordX, double coordY, Set<Long> excludedIds,
+                                     Supplier<List<Egg>> loader) {
+        return grid(farmId, loader).findNearest(coordX, coordY, cellSize, excludedIds);
+    }
+
+    /**
+     * Adds a newly registered egg to the grid of its farm.
+     * Nothing is done if the grid is not loaded, as it will contain the egg once it is.
+     */
+    public void add(Long farmId, Egg egg) {
+        grids.computeIfPresent(farmId, (id, grid) -> {
+            grid.add(egg, cellSize);
+            return grid;
+        });
+    }
+
+    /**
+     * Removes picked eggs from the grid of their farm
+     */
+    public void removeAll(Long farmId, Collection<Egg> eggs) {
+        grids.computeIfPresent(farmId, (id, grid) -> {
+            eggs.forEach(egg -> grid.remove(egg, cellSize));
+            return grid;
+        });
+    }
+
+    /**
+     * Drops the grid of a farm so it is reloaded from the database on next use
+     */
+    public void evict(Long farmId) {
+        grids.remove(farmId);
+    }
+
+    private FarmGrid grid(Long farmId, Supplier<List<Egg>> loader) {
+        while (true) {
+            FarmGrid grid = grids.get(farmId);
+            if (grid == null) {
+                // The empty grid is published first and loaded outside of the map, so a slow query only holds back
+                // the callers of this farm. Eggs added or removed meanwhile are applied to it and kept by the load
+                FarmGrid created = new FarmGrid();
+                grid = grids.putIfAbsent(farmId, created);
+                if (grid == null) {
+                    load(farmId, created, loader);
+                    return created;
+                }
+            }
+            if (grid.awaitLoad()) {
+                return grid;
+            }
+            // The load failed and the grid was dropped, this call loads it again
+        }
+    }
+
+    private void load(Long farmId, FarmGrid grid, Supplier<List<Egg>> loader) {
+        try {
+            grid.load(loader.get(), cellSize);
+        } catch (RuntimeException e) {
+            grids.remove(farmId, grid);
+            grid.failLoad();
+            throw e;
+        }
+    }
+
+    private static long cellKey(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+
+    private static long cellOf(double coord, double cellSize) {
+        return (long) Math.floor(coord / cellSize);
+    }
+
+    private static class FarmGrid {
+        private final Map<Long, Cell> cells = new HashMap<>();
+        private LoadState loadState = LoadState.LOADING;
+        // Eggs picked while the grid was loading, which the loaded rows may still list as unpicked
+        private final Set<Long> removedWhileLoading = new HashSet<>();
+
+        synchronized void load(List<Egg> eggs, double cellSize) {
+            eggs.stream()
+                    .filter(egg -> !removedWhileLoading.contains(egg.getId()))
+                    .forEach(egg -> add(egg, cellSize));
+            removedWhileLoading.clear();
+            loadState = LoadState.LOADED;
+            notifyAll();
+        }
+
+        synchronized void failLoad() {
+            loadState = LoadState.FAILED;
+            notifyAll();
+        }
+
+        /**
+         * Waits for the grid to be loaded
+         *
+         * @return false if the load failed
+         */
+        synchronized boolean awaitLoad() {
+            boolean interrupted = false;
+            try {
+                while (loadState == LoadState.LOADING) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return loadState == LoadState.LOADED;
+        }
+
+        synchronized boolean containsDuplicate(double coordX, double coordY, boolean broken, double cellSize,
+                                               EggDedupKernel dedupKernel) {
+            long cellX = cellOf(coordX, cellSize);
+            long cellY = cellOf(coordY, cellSize);
+            double squaredThreshold = cellSize * cellSize;
+            for (long dx = -1; dx <= 1; dx++) {
+                for (long dy = -1; dy <= 1; dy++) {
+                    Cell cell = cells.get(cellKey(cellX + dx, cellY + dy));
+                    if (cell != null && dedupKernel.containsDuplicate(cell.coordsX, cell.coordsY, cell.broken,
+                            cell.size, coordX, coordY, broken, squaredThreshold)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        synchronized Optional<Egg> findNearest(double coordX, double coordY, double cellSize, Set<Long> excludedIds) {
+            long cellX = cellOf(coordX, cellSize);
+            long cellY = cellOf(coordY, cellSize);
+            double nearestDistance = cellSize * cellSize;
+            Cell nearestCell = null;
+            int nearestIndex = -1;
+            for (long dx = -1; dx <= 1; dx++) {
+                for (long dy = -1; dy <= 1; dy++) {
+                    Cell cell = cells.get(cellKey(cellX + dx, cellY + dy));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cell.size; i++) {
+                        double distanceX = cell.coordsX[i] - coordX;
+                        double distanceY = cell.coordsY[i] - coordY;
+                        double distance = distanceX * distanceX + distanceY * distanceY;
+                        if ((distance < nearestDistance || (nearestCell == null && distance == nearestDistance))
+                                && cell.ids[i] != Cell.NO_ID && !excludedIds.contains(cell.ids[i])) {
+                            nearestDistance = distance;
+                            nearestCell = cell;
+                            nearestIndex = i;
+                        }
+                    }
+                }
+            }
+            if (nearestCell == null) {
+                return Optional.empty();
+            }
+            return Optional.of(Egg.builder()
+                    .id(nearestCell.ids[nearestIndex])
+                    .coordX(nearestCell.coordsX[nearestIndex])
+                    .coordY(nearestCell.coordsY[nearestIndex])
+                    .broken(nearestCell.broken[nearestIndex])
+                    .picked(false)
+                    .build());
+        }
+
+        synchronized void add(Egg egg, double cellSize) {
+            long key = cellKey(cellOf(egg.getCoordX(), cellSize), cellOf(egg.getCoordY(), cellSize));
+            cells.computeIfAbsent(key, k -> new Cell()).add(egg);
+        }
+
+        synchronized void remove(Egg egg, double cellSize) {
+            long key = cellKey(cellOf(egg.getCoordX(), cellSize), cellOf(egg.getCoordY(), cellSize));
+            if (egg.getId() == null) {
+                return;
+            }
+            if (loadState == LoadState.LOADING) {
+                removedWhileLoading.add(egg.getId());
+            }
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                return;
+            }
+            cell.remove(egg.getId());
+            if (cell.size == 0) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private enum LoadState {
+        LOADING, LOADED, FAILED
+    }
+
+    /**
+     * Eggs of one grid cell, one array per column
+     */
+    private static class Cell {
+        private static final long NO_ID = Long.MIN_VALUE;
+
+        private long[] ids = new long[2];
+        private double[] coordsX = new double[2];
+        private double[] coordsY = new double[2];
+        private boolean[] broken = new boolean[2];
+        private int size;
+
+        void add(Egg egg) {
+            long id = egg.getId() != null ? egg.getId() : NO_ID;
+            if (id != NO_ID && indexOf(id) >= 0) {
+                return;
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                coordsX = Arrays.copyOf(coordsX, capacity);
+                coordsY = Arrays.copyOf(coordsY, capacity);
+                broken = Arrays.copyOf(broken, capacity);
+            }
+            ids[size] = id;
+            coordsX[size] = egg.getCoordX();
+            coordsY[size] = egg.getCoordY();
+            broken[size] = egg.getBroken();
+            size++;
+        }
+
+        void remove(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return;
+            }
+            // Order does not matter within a cell, so the last egg takes the place of the removed one
+            size--;
+            ids[index] = ids[size];
+            coordsX[index] = coordsX[size];
+            coordsY[index] = coordsY[size];
+            broken[index] = broken[size];
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
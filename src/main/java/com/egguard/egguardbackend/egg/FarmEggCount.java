@@ -0,0 +1,7 @@
+package com.egguard.egguardbackend.egg;
+
+/**
+ * Number of eggs of one farm among several
+ */
+public record FarmEggCount(Long farmId, Long eggs) {
+}
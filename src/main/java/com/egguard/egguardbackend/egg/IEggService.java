@@ -1,14 +1,20 @@
 package com.egguard.egguardbackend.egg;
 
+import com.egguard.egguardbackend.egg.request.EggPositionRequest;
 import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
 import com.egguard.egguardbackend.egg.request.PickEggsRequest;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 // Interface for Egg service
 public interface IEggService {
     EggDto registerEgg(Long robotId, RegisterEggRequest request);
+    List<EggBatchResultDto> registerEggs(Long robotId, List<RegisterEggRequest> requests);
     List<EggDto> getEggsByFarm(Long farmId, Boolean picked, LocalDate date);
-    void markEggsAsPicked(Long farmId, PickEggsRequest pickEggsRequest);
+    EggPageDto getEggsPageByFarm(Long farmId, Boolean picked, LocalDate date, String cursor, int size);
+    void streamEggsByFarm(Long farmId, Boolean picked, LocalDate date, Consumer<EggDto> consumer);
+    PickEggsResultDto markEggsAsPicked(Long farmId, PickEggsRequest pickEggsRequest);
+    List<EggPickResultDto> pickEggs(Long robotId, List<EggPositionRequest> positions);
 }
\ No newline at end of file
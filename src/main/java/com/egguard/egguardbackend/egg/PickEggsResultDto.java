@@ -0,0 +1,12 @@
+package com.egguard.egguardbackend.egg;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PickEggsResultDto {
+    // Number of eggs marked as picked by the request
+    private Long pickedEggs;
+}
@@ -0,0 +1,9 @@
+package com.egguard.egguardbackend.egg;
+
+/**
+ * Egg actually marked as picked by a pick statement, with the seconds it waited since its detection
+ */
+public interface PickedEgg {
+    Long getId();
+    Long getLatency();
+}
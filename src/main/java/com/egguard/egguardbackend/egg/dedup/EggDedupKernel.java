@@ -0,0 +1,25 @@
+package com.egguard.egguardbackend.egg.dedup;
+
+/**
+ * Duplicate check over eggs stored column-wise: one primitive array per coordinate and one for the broken flag.
+ * Distances are compared squared, so no square root is computed per candidate.
+ */
+public interface EggDedupKernel {
+
+    /**
+     * Checks if any of the first {@code size} eggs has the given broken state and lies within
+     * the threshold distance of a position
+     *
+     * @param coordsX x-coordinates of the eggs
+     * @param coordsY y-coordinates of the eggs
+     * @param broken broken state of the eggs
+     * @param size number of eggs stored in the arrays
+     * @param coordX x-coordinate of the position
+     * @param coordY y-coordinate of the position
+     * @param brokenState broken state of the new egg
+     * @param squaredThreshold the threshold distance, squared
+     * @return true if a duplicate egg exists, false otherwise
+     */
+    boolean containsDuplicate(double[] coordsX, double[] coordsY, boolean[] broken, int size,
+                              double coordX, double coordY, boolean brokenState, double squaredThreshold);
+}
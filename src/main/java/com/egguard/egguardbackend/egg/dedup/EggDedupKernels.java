@@ -0,0 +1,38 @@
+package com.egguard.egguardbackend.egg.dedup;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the dedup kernel to use on the running JVM
+ */
+@Slf4j
+public final class EggDedupKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.egguard.egguardbackend.egg.dedup.VectorEggDedupKernel";
+
+    private EggDedupKernels() {
+    }
+
+    /**
+     * @return the SIMD kernel if it was built (vector profile) and the Vector API module was added to the JVM,
+     * the scalar kernel otherwise
+     */
+    public static EggDedupKernel select() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                // Loaded by name so the class is never resolved on JVMs without the module
+                EggDedupKernel kernel = (EggDedupKernel) Class.forName(VECTOR_KERNEL)
+                        .getDeclaredConstructor()
+                        .newInstance();
+                log.info("Using the Vector API egg dedup kernel");
+                return kernel;
+            } catch (ClassNotFoundException e) {
+                log.info("Vector API egg dedup kernel not built, using the scalar kernel");
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Vector API egg dedup kernel unavailable, falling back to the scalar kernel", e);
+            }
+        }
+        return new ScalarEggDedupKernel();
+    }
+}
@@ -0,0 +1,20 @@
+package com.egguard.egguardbackend.egg.dedup;
+
+/**
+ * Plain loop implementation of the dedup kernel, available on every JVM
+ */
+public class ScalarEggDedupKernel implements EggDedupKernel {
+
+    @Override
+    public boolean containsDuplicate(double[] coordsX, double[] coordsY, boolean[] broken, int size,
+                                     double coordX, double coordY, boolean brokenState, double squaredThreshold) {
+        for (int i = 0; i < size; i++) {
+            double dx = coordsX[i] - coordX;
+            double dy = coordsY[i] - coordY;
+            if (broken[i] == brokenState && dx * dx + dy * dy <= squaredThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.egguard.egguardbackend.egg.dedup;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the dedup kernel on top of the incubating Vector API.
+ * Only usable when the JVM is started with {@code --add-modules jdk.incubator.vector},
+ * see {@link EggDedupKernels#select()}.
+ */
+public class VectorEggDedupKernel implements EggDedupKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean containsDuplicate(double[] coordsX, double[] coordsY, boolean[] broken, int size,
+                                     double coordX, double coordY, boolean brokenState, double squaredThreshold) {
+        int i = 0;
+        int upperBound = SPECIES.loopBound(size);
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, coordsX, i).sub(coordX);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, coordsY, i).sub(coordY);
+            VectorMask<Double> close = dx.mul(dx).add(dy.mul(dy)).compare(VectorOperators.LE, squaredThreshold);
+            VectorMask<Double> sameState = VectorMask.fromArray(SPECIES, broken, i);
+            if (!brokenState) {
+                sameState = sameState.not();
+            }
+            if (close.and(sameState).anyTrue()) {
+                return true;
+            }
+        }
+        for (; i < size; i++) {
+            double dx = coordsX[i] - coordX;
+            double dy = coordsY[i] - coordY;
+            if (broken[i] == brokenState && dx * dx + dy * dy <= squaredThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
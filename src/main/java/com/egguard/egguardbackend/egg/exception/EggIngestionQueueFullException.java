@@ -0,0 +1,19 @@
+package com.egguard.egguardbackend.egg.exception;
+
+import java.time.Duration;
+
+public class EggIngestionQueueFullException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public EggIngestionQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return how long the client should wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,47 @@
+package com.egguard.egguardbackend.egg.lock;
+
+import com.egguard.egguardbackend.egg.EggRepository;
+import com.egguard.egguardbackend.egg.EggService;
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.shared.enums.EggDedupMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Area locks backed by Postgres transaction-level advisory locks, shared by every instance of the application.
+ * Only usable with eggs.dedup-mode=database: the in-memory spatial index is per instance and would not see
+ * the eggs registered by the others, however serialized the registrations are.
+ */
+@Service
+@ConditionalOnProperty(name = "eggs.lock-mode", havingValue = "advisory")
+public class AdvisoryEggLockService implements IEggLockService {
+
+    private final EggRepository eggRepository;
+
+    public AdvisoryEggLockService(EggRepository eggRepository,
+                                  @Value("${eggs.dedup-mode:memory}") EggDedupMode dedupMode) {
+        if (dedupMode != EggDedupMode.DATABASE) {
+            // Fails the startup rather than silently giving no cross-instance guarantee
+            throw new InvalidConfigurationPropertyValueException("eggs.lock-mode", "advisory",
+                    "Advisory egg locks require eggs.dedup-mode=database, the in-memory duplicate check is per instance");
+        }
+        this.eggRepository = eggRepository;
+    }
+
+    @Override
+    public EggAreaLock lock(Long farmId, List<RegisterEggRequest> requests) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Advisory egg locks can only be taken inside a transaction");
+        }
+        // Released by Postgres when the transaction ends
+        for (Long key : EggLockKeys.of(farmId, requests, EggService.DUPLICATE_DISTANCE_THRESHOLD)) {
+            eggRepository.acquireAdvisoryTransactionLock(key);
+        }
+        return EggAreaLock.NONE;
+    }
+}
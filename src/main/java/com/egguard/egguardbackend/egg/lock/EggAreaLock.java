@@ -0,0 +1,12 @@
+package com.egguard.egguardbackend.egg.lock;
+
+/**
+ * Handle over the area locks taken for an egg registration
+ */
+public interface EggAreaLock extends AutoCloseable {
+
+    EggAreaLock NONE = () -> { };
+
+    @Override
+    void close();
+}
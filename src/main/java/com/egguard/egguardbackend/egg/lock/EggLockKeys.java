@@ -0,0 +1,43 @@
+package com.egguard.egguardbackend.egg.lock;
+
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Computes the lock keys of the areas around egg positions.
+ * The farm is divided in cells as wide as the duplicate distance threshold, and each position locks the
+ * 2x2 block of cells around the grid corner closest to it. Two positions closer than the threshold always
+ * share at least one cell of their blocks, so their registrations are serialized.
+ */
+final class EggLockKeys {
+
+    private EggLockKeys() {
+    }
+
+    /**
+     * @return the sorted, distinct keys to lock, so every registration acquires them in the same order
+     */
+    static SortedSet<Long> of(Long farmId, List<RegisterEggRequest> requests, double cellSize) {
+        SortedSet<Long> keys = new TreeSet<>();
+        for (RegisterEggRequest request : requests) {
+            long cornerX = Math.round(request.getCoordX() / cellSize);
+            long cornerY = Math.round(request.getCoordY() / cellSize);
+            for (long cellX = cornerX - 1; cellX <= cornerX; cellX++) {
+                for (long cellY = cornerY - 1; cellY <= cornerY; cellY++) {
+                    keys.add(key(farmId, cellX, cellY));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static long key(long farmId, long cellX, long cellY) {
+        long hash = farmId * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ cellX) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ cellY) * 0x165667B19E3779F9L;
+        return hash ^ (hash >>> 31);
+    }
+}
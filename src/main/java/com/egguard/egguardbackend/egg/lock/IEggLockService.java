@@ -0,0 +1,15 @@
+package com.egguard.egguardbackend.egg.lock;
+
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+
+import java.util.List;
+
+// Interface for the locks serializing egg registrations that are close to each other
+public interface IEggLockService {
+    /**
+     * Locks the areas of a farm around the positions of the given eggs.
+     * Registrations of eggs near each other wait for one another, while the rest of the farm proceeds in parallel.
+     * When a transaction is active the locks are held until it completes, otherwise until the returned lock is closed.
+     */
+    EggAreaLock lock(Long farmId, List<RegisterEggRequest> requests);
+}
@@ -0,0 +1,56 @@
+package com.egguard.egguardbackend.egg.lock;
+
+import com.egguard.egguardbackend.egg.EggService;
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process area locks, striped over a fixed set of {@link ReentrantLock}s.
+ * Only serializes registrations handled by this instance of the application.
+ */
+@Service
+@ConditionalOnProperty(name = "eggs.lock-mode", havingValue = "striped", matchIfMissing = true)
+public class StripedEggLockService implements IEggLockService {
+
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public StripedEggLockService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public EggAreaLock lock(Long farmId, List<RegisterEggRequest> requests) {
+        // Several keys may fall in the same stripe, lock each stripe once and always in ascending order
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long key : EggLockKeys.of(farmId, requests, EggService.DUPLICATE_DISTANCE_THRESHOLD)) {
+            stripeIndexes.add((int) Math.floorMod(key, (long) STRIPES));
+        }
+        List<ReentrantLock> locks = stripeIndexes.stream().map(index -> stripes[index]).toList();
+        locks.forEach(ReentrantLock::lock);
+
+        Runnable unlock = () -> locks.reversed().forEach(ReentrantLock::unlock);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Held until the registration is committed and visible to the next duplicate check
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlock.run();
+                }
+            });
+            return EggAreaLock.NONE;
+        }
+        return unlock::run;
+    }
+}
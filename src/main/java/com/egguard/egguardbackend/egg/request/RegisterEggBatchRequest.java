@@ -0,0 +1,19 @@
+package com.egguard.egguardbackend.egg.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RegisterEggBatchRequest {
+
+    @NotEmpty(message = "At least one egg must be provided")
+    @Size(max = 500, message = "A batch can contain at most 500 eggs")
+    private List<@Valid RegisterEggRequest> eggs;
+}
@@ -0,0 +1,13 @@
+package com.egguard.egguardbackend.farm;
+
+import java.time.LocalDate;
+
+/**
+ * Egg counters of a farm for one detection day
+ */
+public record DailyEggCounts(LocalDate day, Long detected, Long picked, Long pickedBroken) {
+
+    public EggCounts counts() {
+        return new EggCounts(detected, picked, pickedBroken);
+    }
+}
@@ -0,0 +1,13 @@
+package com.egguard.egguardbackend.farm;
+
+/**
+ * Egg counters of a farm summed over a range of days
+ */
+public record EggCounts(Long detected, Long picked, Long pickedBroken) {
+
+    public static final EggCounts ZERO = new EggCounts(0L, 0L, 0L);
+
+    public EggCounts plus(EggCounts other) {
+        return new EggCounts(detected + other.detected, picked + other.picked, pickedBroken + other.pickedBroken);
+    }
+}
@@ -0,0 +1,29 @@
+package com.egguard.egguardbackend.farm;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Egg counters of one farm for one detection day, kept up to date as eggs are registered and picked.
+ * Eggs are counted on the day they were detected, also when they are picked on a later day.
+ */
+@Entity
+@Table(name = "farm_daily_egg_stats")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FarmDailyEggStats {
+    @EmbeddedId
+    private FarmDailyEggStatsId id;
+
+    @Column(nullable = false)
+    private Long detected;
+
+    @Column(nullable = false)
+    private Long picked;
+
+    @Column(name = "picked_broken", nullable = false)
+    private Long pickedBroken;
+}
@@ -0,0 +1,20 @@
+package com.egguard.egguardbackend.farm;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FarmDailyEggStatsId implements Serializable {
+    @Column(name = "farm_id", nullable = false)
+    private Long farmId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+}
@@ -0,0 +1,34 @@
+package com.egguard.egguardbackend.farm;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FarmDailyEggStatsRepository extends JpaRepository<FarmDailyEggStats, FarmDailyEggStatsId> {
+
+    // Reads at most one row per day of the range, whatever the number of eggs
+    @Query("select new com.egguard.egguardbackend.farm.DailyEggCounts(s.id.day, s.detected, s.picked, s.pickedBroken) "
+            + "from FarmDailyEggStats s where s.id.farmId = :farmId and s.id.day between :from and :to")
+    List<DailyEggCounts> findDailyByFarm(@Param("farmId") Long farmId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // One row per farm with stats in the range, farms without any are left out
+    @Query("select new com.egguard.egguardbackend.farm.FarmEggCounts(s.id.farmId, sum(s.detected), sum(s.picked), sum(s.pickedBroken)) "
+            + "from FarmDailyEggStats s where s.id.farmId in :farmIds and s.id.day between :from and :to "
+            + "group by s.id.farmId")
+    List<FarmEggCounts> sumByFarms(@Param("farmIds") Collection<Long> farmIds, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Atomic increment, concurrent registrations on the same day never lose counts
+    @Modifying
+    @Query(value = "insert into farm_daily_egg_stats (farm_id, day, detected, picked, picked_broken) "
+            + "values (:farmId, :day, :detected, 0, 0) "
+            + "on conflict (farm_id, day) do update set detected = farm_daily_egg_stats.detected + excluded.detected",
+            nativeQuery = true)
+    void addDetected(@Param("farmId") Long farmId, @Param("day") LocalDate day, @Param("detected") long detected);
+}
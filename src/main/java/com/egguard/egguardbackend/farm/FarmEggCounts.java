@@ -0,0 +1,11 @@
+package com.egguard.egguardbackend.farm;
+
+/**
+ * Egg counters of one farm among several, summed over a range of days
+ */
+public record FarmEggCounts(Long farmId, Long detected, Long picked, Long pickedBroken) {
+
+    public EggCounts counts() {
+        return new EggCounts(detected, picked, pickedBroken);
+    }
+}
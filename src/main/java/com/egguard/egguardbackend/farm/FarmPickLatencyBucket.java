@@ -0,0 +1,22 @@
+package com.egguard.egguardbackend.farm;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Number of eggs of one farm picked with a latency falling in one bucket of its pick latency histogram
+ */
+@Entity
+@Table(name = "farm_pick_latency_buckets")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FarmPickLatencyBucket {
+    @EmbeddedId
+    private FarmPickLatencyBucketId id;
+
+    @Column(nullable = false)
+    private Long count;
+}
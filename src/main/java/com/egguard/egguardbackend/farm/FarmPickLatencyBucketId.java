@@ -0,0 +1,19 @@
+package com.egguard.egguardbackend.farm;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FarmPickLatencyBucketId implements Serializable {
+    @Column(name = "farm_id", nullable = false)
+    private Long farmId;
+
+    @Column(nullable = false)
+    private Short bucket;
+}
@@ -0,0 +1,25 @@
+package com.egguard.egguardbackend.farm;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FarmPickLatencyBucketRepository extends JpaRepository<FarmPickLatencyBucket, FarmPickLatencyBucketId> {
+
+    List<FarmPickLatencyBucket> findByIdFarmId(Long farmId);
+
+    List<FarmPickLatencyBucket> findByIdFarmIdIn(Collection<Long> farmIds);
+
+    // Atomic increment, so several application instances can flush the same farm
+    @Modifying
+    @Query(value = "insert into farm_pick_latency_buckets (farm_id, bucket, count) values (:farmId, :bucket, :count) "
+            + "on conflict (farm_id, bucket) do update set count = farm_pick_latency_buckets.count + excluded.count",
+            nativeQuery = true)
+    void addCount(@Param("farmId") Long farmId, @Param("bucket") short bucket, @Param("count") long count);
+}
@@ -1,8 +1,15 @@
 package com.egguard.egguardbackend.farm;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface FarmRepository extends JpaRepository<Farm, Long> {
+    @Query("select new com.egguard.egguardbackend.farm.FarmSummaryDto(f.id, f.name) "
+            + "from Farm f where f.user.id = :userId order by f.id")
+    List<FarmSummaryDto> findSummariesByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.egguard.egguardbackend.farm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the daily egg counters of every farm, used to answer stats requests.
+ * Days before today are closed: their counters only change on late writes, which invalidate them,
+ * so they are kept until evicted by size. Today is still open and always read from the database.
+ * Entries are the cached days of one farm, sorted, so invalidating a farm only touches that farm's days.
+ * The maximum size counts days, a farm's days are evicted together.
+ * The cache is per instance: late writes made through other instances do not invalidate it.
+ * Hits and misses are counted per day and published as the "cache.*" metrics of the "farm-stats" cache,
+ * along with the "farm.stats.cache.hit.ratio" gauge.
+ */
+@Component
+public class FarmStatsCache {
+
+    private final Cache<Long, NavigableMap<LocalDate, EggCounts>> cache;
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+    private final Clock clock;
+    // Bumped by every invalidation of closed days of a farm, so a load overlapping one is not kept
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FarmStatsCache(MeterRegistry meterRegistry,
+                          @Value("${stats.cache.maximum-size:100000}") long maximumSize) {
+        this(meterRegistry, maximumSize, Clock.systemDefaultZone());
+    }
+
+    FarmStatsCache(MeterRegistry meterRegistry, long maximumSize, Clock clock) {
+        this.clock = clock;
+        // Farm entries are replaced on every change, so their weight always matches their days
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((Long farmId, NavigableMap<LocalDate, EggCounts> days) -> days.size())
+                .recordStats(() -> stats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "farm-stats");
+        Gauge.builder("farm.stats.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of closed farm days answered from the stats cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sums the daily counters of a farm over a range of days.
+     * Closed days missing from the cache are loaded together with a single loader call.
+     * They are not cached if the farm was invalidated while they were loading.
+     *
+     * @param loader Loads the counters of the days in a range, days without eggs may be left out
+     */
+    public EggCounts sum(Long farmId, LocalDate from, LocalDate to,
+                         BiFunction<LocalDate, LocalDate, List<DailyEggCounts>> loader) {
+        LocalDate today = LocalDate.now(clock);
+        EggCounts total = EggCounts.ZERO;
+
+        LocalDate lastClosedDay = to.isBefore(today) ? to : today.minusDays(1);
+        if (!from.isAfter(lastClosedDay)) {
+            // Read through the map view, which records no stats, hits and misses are counted per day below
+            NavigableMap<LocalDate, EggCounts> cached = cache.asMap().getOrDefault(farmId, Collections.emptyNavigableMap());
+            Set<LocalDate> missing = new HashSet<>();
+            for (LocalDate day = from; !day.isAfter(lastClosedDay); day = day.plusDays(1)) {
+                EggCounts counts = cached.get(day);
+                if (counts != null) {
+                    total = total.plus(counts);
+                } else {
+                    missing.add(day);
+                }
+            }
+            stats.recordHits((int) (ChronoUnit.DAYS.between(from, lastClosedDay) + 1 - missing.size()));
+            stats.recordMisses(missing.size());
+            if (!missing.isEmpty()) {
+                for (EggCounts counts : loadAndCache(farmId, missing, loader).values()) {
+                    total = total.plus(counts);
+                }
+            }
+        }
+
+        if (!to.isBefore(today)) {
+            LocalDate openFrom = from.isAfter(today) ? from : today;
+            for (DailyEggCounts counts : loader.apply(openFrom, to)) {
+                total = total.plus(counts.counts());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Drops the cached counters of one day of a farm, e.g. after eggs detected that day were picked
+     */
+    public void invalidate(Long farmId, LocalDate day) {
+        if (day.isBefore(LocalDate.now(clock))) {
+            // Today is never cached, only closed days can be put back by a load
+            generation(farmId).incrementAndGet();
+        }
+        replace(farmId, days -> {
+            NavigableMap<LocalDate, EggCounts> remaining = new TreeMap<>(days);
+            remaining.remove(day);
+            return remaining;
+        });
+    }
+
+    /**
+     * Drops the cached counters of a farm up to a day included
+     */
+    public void invalidateUntil(Long farmId, LocalDate lastDay) {
+        generation(farmId).incrementAndGet();
+        replace(farmId, days -> new TreeMap<>(days.tailMap(lastDay, false)));
+    }
+
+    /**
+     * Loads missing closed days and caches them, unless an invalidation of the farm happened during the load:
+     * the loaded counters may then predate the late write and would never be reloaded
+     */
+    private Map<LocalDate, EggCounts> loadAndCache(Long farmId, Set<LocalDate> missing,
+                                                   BiFunction<LocalDate, LocalDate, List<DailyEggCounts>> loader) {
+        AtomicLong generation = generation(farmId);
+        long loadGeneration = generation.get();
+        Map<LocalDate, EggCounts> loaded = load(missing, loader);
+        // Checked under the entry lock: an invalidation bumping the generation later removes the days itself
+        cache.asMap().compute(farmId, (id, days) -> {
+            if (generation.get() != loadGeneration) {
+                return days;
+            }
+            NavigableMap<LocalDate, EggCounts> merged = days != null ? new TreeMap<>(days) : new TreeMap<>();
+            merged.putAll(loaded);
+            return Collections.unmodifiableNavigableMap(merged);
+        });
+        return loaded;
+    }
+
+    /**
+     * Replaces the cached days of a farm, dropping the farm once it has none left
+     */
+    private void replace(Long farmId, UnaryOperator<NavigableMap<LocalDate, EggCounts>> change) {
+        cache.asMap().computeIfPresent(farmId, (id, days) -> {
+            NavigableMap<LocalDate, EggCounts> changed = change.apply(days);
+            return changed.isEmpty() ? null : Collections.unmodifiableNavigableMap(changed);
+        });
+    }
+
+    private AtomicLong generation(Long farmId) {
+        return generations.computeIfAbsent(farmId, id -> new AtomicLong());
+    }
+
+    private static Map<LocalDate, EggCounts> load(Set<LocalDate> missing,
+                                                  BiFunction<LocalDate, LocalDate, List<DailyEggCounts>> loader) {
+        LocalDate first = Collections.min(missing);
+        LocalDate last = Collections.max(missing);
+        Map<LocalDate, EggCounts> loaded = loader.apply(first, last).stream()
+                .collect(Collectors.toMap(DailyEggCounts::day, DailyEggCounts::counts));
+
+        // Days without eggs have no counters, they are cached as zeros so they are not loaded again
+        Map<LocalDate, EggCounts> counts = new HashMap<>();
+        missing.forEach(day -> counts.put(day, loaded.getOrDefault(day, EggCounts.ZERO)));
+        return counts;
+    }
+}
@@ -1,8 +1,8 @@
 package com.egguard.egguardbackend.farm;
 
+import com.egguard.egguardbackend.shared.enums.StatsGranularity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,11 +25,23 @@ public class FarmStatsController {
         if (endDate == null) endDate = today;
         if (startDate == null) startDate = endDate.minusDays(7);
 
-        if (startDate.isAfter(endDate)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("Start date cannot be after end date.");
-        }
+        // An inverted range is rejected by the service with an IllegalStateException, answered with a 400
         FarmStatsDto stats = farmStatsService.getFarmStats(farmId, startDate, endDate);
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/{farm_id}/stats/series")
+    public ResponseEntity<FarmStatsSeriesDto> getFarmStatsSeries(
+            @PathVariable("farm_id") Long farmId,
+            @RequestParam(required = false, value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false, value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "DAY") StatsGranularity granularity
+    ) {
+        LocalDate today = LocalDate.now();
+        if (endDate == null) endDate = today;
+        if (startDate == null) startDate = endDate.minusDays(7);
+
+        FarmStatsSeriesDto series = farmStatsService.getFarmStatsSeries(farmId, startDate, endDate, granularity);
+        return ResponseEntity.ok(series);
+    }
 }
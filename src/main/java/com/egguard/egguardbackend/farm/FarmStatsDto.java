@@ -11,4 +11,8 @@ public class FarmStatsDto {
     private Long averageNotBrokenEggsPickedPerDay;
     private Long averageBrokenEggsPickedPerDay;
     private Double brokenEggsPercentage;
+    // Seconds eggs waited between detection and pick, over all the picks of the farm, null before the first pick
+    private Long pickLatencyP50Seconds;
+    private Long pickLatencyP90Seconds;
+    private Long pickLatencyP99Seconds;
 }
@@ -0,0 +1,22 @@
+package com.egguard.egguardbackend.farm;
+
+import com.egguard.egguardbackend.shared.enums.StatsGranularity;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Egg counters of a farm over consecutive time buckets, one array per counter.
+ * Buckets are dense: bucket i starts at start + i * granularity, buckets without eggs hold zeros.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FarmStatsSeriesDto {
+    private StatsGranularity granularity;
+    private LocalDateTime start;
+    private long[] detected;
+    private long[] picked;
+    private long[] broken;
+}
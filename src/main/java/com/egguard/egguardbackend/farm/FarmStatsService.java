@@ -1,51 +1,67 @@
 package com.egguard.egguardbackend.farm;
 
-import com.egguard.egguardbackend.egg.Egg;
 import com.egguard.egguardbackend.egg.EggRepository;
+import com.egguard.egguardbackend.egg.EggSeriesBucket;
+import com.egguard.egguardbackend.shared.enums.StatsGranularity;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class FarmStatsService implements IFarmStatsService {
 
+    private final FarmDailyEggStatsRepository farmDailyEggStatsRepository;
     private final EggRepository eggRepository;
     private final FarmRepository farmRepository;
+    private final FarmStatsCache farmStatsCache;
+    private final PickLatencyTracker pickLatencyTracker;
+
+    /**
+     * The maximum number of buckets of a stats series, a year of hourly buckets fits
+     */
+    public static final int MAX_SERIES_BUCKETS = 10_000;
+
+    /**
+     * Whether stats are summed from the daily rollup or aggregated from the eggs themselves
+     */
+    @Value("${stats.use-rollup:true}")
+    private boolean useRollup = true;
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public FarmStatsDto getFarmStats(Long farmId, LocalDate from, LocalDate to) {
         if(from.isAfter(to)){
             throw new IllegalStateException("The dates range can't be negative");
         }
 
-        if(!farmRepository.existsById(farmId)){
+        EggCounts counts = farmStatsCache.sum(farmId, from, to, (firstDay, lastDay) -> useRollup
+                // Read from the daily rollup, so the cost depends on the number of days, not of eggs
+                ? farmDailyEggStatsRepository.findDailyByFarm(farmId, firstDay, lastDay)
+                // Counted by the database in a single aggregate, no egg row reaches the application
+                : eggRepository.countDailyByFarmAndTimestampBetween(
+                        farmId, firstDay.atStartOfDay(), lastDay.atTime(LocalTime.MAX)));
+
+        // A farm with eggs in the range exists, so the existence check is only needed when there are none
+        if(counts.detected() == 0 && !farmRepository.existsById(farmId)){
             throw new EntityNotFoundException("Farm with id " + farmId + " not found");
         }
 
-        LocalDateTime fromDateTime = from.atStartOfDay();
-        LocalDateTime toDateTime = to.atTime(23, 59, 59);
-
-        List<Egg> pickedEggs = eggRepository.findByFarmIdAndPickedAndTimestampBetween(
-                farmId, true, fromDateTime, toDateTime
-        );
-
-        long totalPicked = pickedEggs.size();
-
-        long pickedNotBroken = pickedEggs.stream()
-                .filter(egg -> !egg.getBroken())
-                .count();
-
-        long pickedBroken = pickedEggs.stream()
-                .filter(Egg::getBroken)
-                .count();
+        long totalPicked = counts.picked();
+        long pickedBroken = counts.pickedBroken();
+        long pickedNotBroken = totalPicked - pickedBroken;
 
         long daysBetween = ChronoUnit.DAYS.between(from, to) + 1;
 
@@ -55,11 +71,64 @@ public class FarmStatsService implements IFarmStatsService {
         double brokenEggsPercentage = totalPicked == 0 ? 0.0 : (double) pickedBroken * 100 / totalPicked;
         brokenEggsPercentage = Math.round(brokenEggsPercentage * 100.0) / 100.0;
 
+        // Read from the in-memory histogram of the farm, not from the eggs
+        Optional<PickLatencyPercentiles> pickLatency = pickLatencyTracker.getPercentiles(farmId);
+
         return FarmStatsDto.builder()
                 .totalPickedEggs(totalPicked)
                 .averageNotBrokenEggsPickedPerDay(avgPickedNotBrokenPerDay)
                 .averageBrokenEggsPickedPerDay(avgPickedBrokenPerDay)
                 .brokenEggsPercentage(brokenEggsPercentage)
+                .pickLatencyP50Seconds(pickLatency.map(PickLatencyPercentiles::p50).orElse(null))
+                .pickLatencyP90Seconds(pickLatency.map(PickLatencyPercentiles::p90).orElse(null))
+                .pickLatencyP99Seconds(pickLatency.map(PickLatencyPercentiles::p99).orElse(null))
+                .build();
+    }
+
+    /**
+     * Gets the detected, picked and broken egg counters of a farm per hour, day or week, by detection time
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FarmStatsSeriesDto getFarmStatsSeries(Long farmId, LocalDate from, LocalDate to, StatsGranularity granularity) {
+        if(from.isAfter(to)){
+            throw new IllegalStateException("The dates range can't be negative");
+        }
+
+        // Aligned like date_trunc, weeks start on Monday
+        LocalDateTime start = granularity == StatsGranularity.WEEK
+                ? from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay()
+                : from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long bucketSeconds = granularity.getBucketSize().toSeconds();
+        long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+        long bucketCount = (end.toEpochSecond(ZoneOffset.UTC) - startSecond + bucketSeconds - 1) / bucketSeconds;
+        if(bucketCount > MAX_SERIES_BUCKETS){
+            throw new IllegalStateException("A series can have at most " + MAX_SERIES_BUCKETS + " buckets, use a coarser granularity");
+        }
+
+        if(!farmRepository.existsById(farmId)){
+            throw new EntityNotFoundException("Farm with id " + farmId + " not found");
+        }
+
+        long[] detected = new long[(int) bucketCount];
+        long[] picked = new long[(int) bucketCount];
+        long[] broken = new long[(int) bucketCount];
+        List<EggSeriesBucket> buckets = eggRepository.countSeriesByFarm(farmId, granularity.getUnit(), start, end);
+        for (EggSeriesBucket bucket : buckets) {
+            // Timestamps have no zone, so their epoch is read as UTC on both sides
+            int index = (int) ((bucket.getBucket() - startSecond) / bucketSeconds);
+            detected[index] = bucket.getDetected();
+            picked[index] = bucket.getPicked();
+            broken[index] = bucket.getBroken();
+        }
+
+        return FarmStatsSeriesDto.builder()
+                .granularity(granularity)
+                .start(start)
+                .detected(detected)
+                .picked(picked)
+                .broken(broken)
                 .build();
     }
 }
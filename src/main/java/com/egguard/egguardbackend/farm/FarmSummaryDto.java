@@ -0,0 +1,7 @@
+package com.egguard.egguardbackend.farm;
+
+/**
+ * Identity of a farm, without its associations
+ */
+public record FarmSummaryDto(Long id, String name) {
+}
@@ -1,7 +1,10 @@
 package com.egguard.egguardbackend.farm;
 
+import com.egguard.egguardbackend.shared.enums.StatsGranularity;
+
 import java.time.LocalDate;
 
 public interface IFarmStatsService {
     public FarmStatsDto getFarmStats(Long farmId, LocalDate from, LocalDate to);
+    public FarmStatsSeriesDto getFarmStatsSeries(Long farmId, LocalDate from, LocalDate to, StatsGranularity granularity);
 }
@@ -0,0 +1,9 @@
+package com.egguard.egguardbackend.farm;
+
+/**
+ * Number of eggs picked by one statement whose pick latency falls in a bucket of the pick latency histogram
+ */
+public interface PickLatencyBucketCount {
+    Integer getBucket();
+    Long getCount();
+}
@@ -0,0 +1,114 @@
+package com.egguard.egguardbackend.farm;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of pick latencies in seconds, in the spirit of HDR histograms.
+ * Each power of two is split into {@value #SUB_BUCKETS} linear buckets, so any recorded value
+ * is reported within 12.5% of its actual value, from seconds up to decades, with a fixed number of buckets.
+ * The bucketing is mirrored by EggRepository.PICK_LATENCY_BUCKETS for bulk picks, both must change together.
+ * Recording is lock-free. Counts not yet persisted are tracked apart so they can be flushed as increments.
+ */
+class PickLatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 31;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLongArray pending = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * @return the bucket of a latency, negative latencies (clock skew) count as zero
+     */
+    static int bucketOf(long seconds) {
+        long value = Math.min(Math.max(seconds, 0), MAX_VALUE);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return the highest latency counted in a bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    void record(long seconds) {
+        record(bucketOf(seconds), 1);
+    }
+
+    /**
+     * Records latencies already bucketed, e.g. by the database
+     */
+    void record(int bucket, long count) {
+        counts.addAndGet(bucket, count);
+        pending.addAndGet(bucket, count);
+    }
+
+    /**
+     * Adds persisted counts, they are not flushed again
+     */
+    void load(int bucket, long count) {
+        counts.addAndGet(bucket, count);
+    }
+
+    /**
+     * Takes the counts recorded since the last call, so each recorded latency is flushed once
+     */
+    long takePending(int bucket) {
+        return pending.getAndSet(bucket, 0);
+    }
+
+    /**
+     * Gives back counts that could not be flushed
+     */
+    void restorePending(int bucket, long count) {
+        pending.addAndGet(bucket, count);
+    }
+
+    long totalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return the latency in seconds at or below which this percentile of the recorded latencies fall,
+     * or null if nothing was recorded
+     */
+    Long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKET_COUNT - 1);
+    }
+}
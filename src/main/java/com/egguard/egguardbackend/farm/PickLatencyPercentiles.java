@@ -0,0 +1,7 @@
+package com.egguard.egguardbackend.farm;
+
+/**
+ * Pick latency percentiles of a farm, in seconds
+ */
+public record PickLatencyPercentiles(Long p50, Long p90, Long p99) {
+}
@@ -0,0 +1,145 @@
+package com.egguard.egguardbackend.farm;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-farm histograms of the time eggs wait between their detection and their pick.
+ * Histograms are updated in memory as eggs are picked, so percentiles never scan egg rows,
+ * and their new counts are added to the database every flush interval and on shutdown.
+ * A farm histogram is loaded from the database the first time the farm is seen.
+ */
+@Component
+@Slf4j
+public class PickLatencyTracker {
+
+    private final FarmPickLatencyBucketRepository farmPickLatencyBucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, PickLatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public PickLatencyTracker(FarmPickLatencyBucketRepository farmPickLatencyBucketRepository,
+                              TransactionTemplate transactionTemplate) {
+        this.farmPickLatencyBucketRepository = farmPickLatencyBucketRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Records the pick latencies of eggs of a farm
+     *
+     * @param latencies Seconds between the detection and the pick of each egg
+     */
+    public void record(Long farmId, Collection<Long> latencies) {
+        if (latencies.isEmpty()) {
+            return;
+        }
+        PickLatencyHistogram histogram = histogram(farmId);
+        latencies.forEach(histogram::record);
+    }
+
+    /**
+     * Records the pick latencies of eggs of a farm, already counted per histogram bucket by the database
+     */
+    public void recordBuckets(Long farmId, Collection<PickLatencyBucketCount> bucketCounts) {
+        if (bucketCounts.isEmpty()) {
+            return;
+        }
+        PickLatencyHistogram histogram = histogram(farmId);
+        bucketCounts.forEach(bucketCount -> histogram.record(bucketCount.getBucket(), bucketCount.getCount()));
+    }
+
+    /**
+     * @return the pick latency percentiles of a farm, empty if no pick was ever recorded
+     */
+    public Optional<PickLatencyPercentiles> getPercentiles(Long farmId) {
+        return percentiles(histogram(farmId));
+    }
+
+    /**
+     * Loads the histograms of the farms not seen yet with a single query
+     *
+     * @return the pick latency percentiles of the farms, those without any recorded pick are left out
+     */
+    public Map<Long, PickLatencyPercentiles> getPercentiles(Collection<Long> farmIds) {
+        List<Long> missing = farmIds.stream().filter(farmId -> !histograms.containsKey(farmId)).toList();
+        if (!missing.isEmpty()) {
+            Map<Long, PickLatencyHistogram> loaded = new HashMap<>();
+            missing.forEach(farmId -> loaded.put(farmId, new PickLatencyHistogram()));
+            farmPickLatencyBucketRepository.findByIdFarmIdIn(missing).forEach(bucket ->
+                    loaded.get(bucket.getId().getFarmId()).load(bucket.getId().getBucket(), bucket.getCount()));
+            // Histograms loaded in the meantime may already hold new picks, they are kept
+            loaded.forEach(histograms::putIfAbsent);
+        }
+
+        Map<Long, PickLatencyPercentiles> percentiles = new HashMap<>();
+        farmIds.forEach(farmId -> percentiles(histograms.get(farmId))
+                .ifPresent(farmPercentiles -> percentiles.put(farmId, farmPercentiles)));
+        return percentiles;
+    }
+
+    private static Optional<PickLatencyPercentiles> percentiles(PickLatencyHistogram histogram) {
+        if (histogram.totalCount() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new PickLatencyPercentiles(
+                histogram.valueAtPercentile(50),
+                histogram.valueAtPercentile(90),
+                histogram.valueAtPercentile(99)));
+    }
+
+    /**
+     * Adds the counts recorded since the last flush to the database, in one transaction.
+     * If it fails the counts are kept to be flushed next time.
+     */
+    @Scheduled(fixedDelayString = "${stats.pick-latency.flush-interval:60s}")
+    @PreDestroy
+    public void flush() {
+        List<PendingCount> taken = new ArrayList<>();
+        histograms.forEach((farmId, histogram) -> {
+            for (int bucket = 0; bucket < PickLatencyHistogram.BUCKET_COUNT; bucket++) {
+                long count = histogram.takePending(bucket);
+                if (count > 0) {
+                    taken.add(new PendingCount(farmId, histogram, bucket, count));
+                }
+            }
+        });
+        if (taken.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> taken.forEach(pending ->
+                    farmPickLatencyBucketRepository.addCount(pending.farmId(), (short) pending.bucket(), pending.count())));
+        } catch (RuntimeException e) {
+            taken.forEach(pending -> pending.histogram().restorePending(pending.bucket(), pending.count()));
+            log.warn("Could not flush {} pick latency buckets, they will be retried", taken.size(), e);
+        }
+    }
+
+    private PickLatencyHistogram histogram(Long farmId) {
+        PickLatencyHistogram histogram = histograms.get(farmId);
+        if (histogram != null) {
+            return histogram;
+        }
+        // Loaded outside of the map so the query does not block other farms hashed to the same bin.
+        // Concurrent first loads of a farm read the same persisted counts, only one of them is kept
+        PickLatencyHistogram loaded = new PickLatencyHistogram();
+        farmPickLatencyBucketRepository.findByIdFarmId(farmId)
+                .forEach(bucket -> loaded.load(bucket.getId().getBucket(), bucket.getCount()));
+        PickLatencyHistogram existing = histograms.putIfAbsent(farmId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private record PendingCount(Long farmId, PickLatencyHistogram histogram, int bucket, long count) {
+    }
+}
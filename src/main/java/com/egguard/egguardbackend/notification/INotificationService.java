@@ -4,13 +4,14 @@ import com.egguard.egguardbackend.notification.request.RegisterNotificationReque
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 
 // Interface for Notification service
 public interface INotificationService {
     /**
-     * Registers a notification with an image
+     * Registers a notification with an image, the image is uploaded in the background
      */
     NotificationDto registerNotification(Long robotId, RegisterNotificationRequest request, MultipartFile image) throws IOException;
     
@@ -18,4 +19,10 @@ public interface INotificationService {
      * Gets notifications for a farm with pagination
      */
     Page<NotificationDto> getNotificationsByFarm(Long farmId, Pageable pageable);
-} 
\ No newline at end of file
+
+    /**
+     * Streams the notifications registered for a farm from now on, as Server-Sent Events,
+     * and sends them again when their image upload ends
+     */
+    SseEmitter subscribeToNotifications(Long farmId);
+}
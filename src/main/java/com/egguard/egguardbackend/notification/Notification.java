@@ -1,5 +1,6 @@
 package com.egguard.egguardbackend.notification;
 
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
 import com.egguard.egguardbackend.shared.enums.NotificationSeverity;
 import com.egguard.egguardbackend.farm.Farm;
 import jakarta.persistence.*;
@@ -37,4 +38,11 @@ public class Notification {
 
     @Column(name = "photo_url")
     private String photoUrl;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "image_status", nullable = false)
+    private NotificationImageStatus imageStatus; // The photo URL is only set once UPLOADED
 }
@@ -13,6 +13,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 
@@ -46,4 +47,9 @@ public class NotificationController {
         Page<NotificationDto> notifications = notificationService.getNotificationsByFarm(farmId, pageable);
         return ResponseEntity.ok(notifications);
     }
+
+    @GetMapping(value = "/farms/{farm_id}/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotificationsByFarm(@PathVariable("farm_id") Long farmId) {
+        return notificationService.subscribeToNotifications(farmId);
+    }
 }
@@ -1,5 +1,6 @@
 package com.egguard.egguardbackend.notification;
 
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
 import com.egguard.egguardbackend.shared.enums.NotificationSeverity;
 import lombok.*;
 
@@ -15,5 +16,7 @@ public class NotificationDto {
     private NotificationSeverity severity;
     private String message;
     private String photoUrl;
+    private String thumbnailUrl;
+    private NotificationImageStatus imageStatus;
     private LocalDateTime timestamp;
 }
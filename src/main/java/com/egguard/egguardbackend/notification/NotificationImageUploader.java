@@ -0,0 +1,308 @@
+package com.egguard.egguardbackend.notification;
+
+import com.egguard.egguardbackend.notification.image.ImageHashCache;
+import com.egguard.egguardbackend.notification.image.NotificationImageProcessor;
+import com.egguard.egguardbackend.notification.image.ProcessedImage;
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
+import com.egguard.egguardbackend.shared.service.IStaticContentUploadService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads notification images in the background, outside of any database transaction,
+ * so no connection is held while an image is sent to the static content service.
+ * Images are handed over as temporary files, preprocessed into a smaller image and a thumbnail,
+ * and streamed from disk to the static content service.
+ * Each upload runs on its own virtual thread, at most {@code notifications.image-upload.concurrency} at once.
+ * At most {@code notifications.image-upload.capacity} images wait or are uploaded at once, each holding
+ * its temporary file, images beyond it or submitted during shutdown are failed right away.
+ * Failed uploads are retried with an exponential backoff, the notification ends either
+ * UPLOADED with its photo URL or FAILED, and is then published again to the farm's stream subscribers.
+ * On shutdown running uploads are given some time to end. Notifications left PENDING by an instance stopped
+ * mid-upload cannot be retried, their temporary files are gone, so they are swept to FAILED once stale.
+ * Only pending images are updated, an image swept to FAILED is never set UPLOADED afterwards.
+ */
+@Component
+@Slf4j
+public class NotificationImageUploader {
+
+    private final IStaticContentUploadService staticContentUploadService;
+    private final NotificationRepository notificationRepository;
+    private final NotificationImageProcessor notificationImageProcessor;
+    private final ImageHashCache imageHashCache;
+    private final NotificationStreamHub notificationStreamHub;
+    private final Timer uploadTimer;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Semaphore permits;
+    private final int capacity;
+    private final Semaphore backlog;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Duration staleAfter;
+    private final Duration shutdownTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NotificationImageUploader(IStaticContentUploadService staticContentUploadService,
+                                     NotificationRepository notificationRepository,
+                                     NotificationImageProcessor notificationImageProcessor,
+                                     ImageHashCache imageHashCache,
+                                     NotificationStreamHub notificationStreamHub,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${notifications.image-upload.max-attempts:3}") int maxAttempts,
+                                     @Value("${notifications.image-upload.backoff:1s}") Duration backoff,
+                                     @Value("${notifications.image-upload.concurrency:8}") int concurrency,
+                                     @Value("${notifications.image-upload.capacity:200}") int capacity,
+                                     @Value("${notifications.image-upload.stale-after:15m}") Duration staleAfter,
+                                     @Value("${notifications.image-upload.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.staticContentUploadService = staticContentUploadService;
+        this.notificationRepository = notificationRepository;
+        this.notificationImageProcessor = notificationImageProcessor;
+        this.imageHashCache = imageHashCache;
+        this.notificationStreamHub = notificationStreamHub;
+        this.uploadTimer = Timer.builder("notifications.image.stage")
+                .description("Time spent in each stage of notification image processing and upload")
+                .tag("stage", "upload")
+                .register(meterRegistry);
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.permits = new Semaphore(concurrency);
+        this.capacity = capacity;
+        this.backlog = new Semaphore(capacity);
+        this.staleAfter = staleAfter;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Starts uploading the image of a saved notification, whose image status must be PENDING
+     *
+     * @param notification The notification as published when it was saved
+     * @param image A temporary image file, owned by the uploader from now on and deleted once the upload ends
+     * @param hash  The hash of the image, its URLs are recorded under it once uploaded
+     */
+    public Future<?> submit(NotificationDto notification, Path image, String hash) {
+        if (!backlog.tryAcquire()) {
+            log.warn("{} notification images already waiting for upload, the image of notification {} is failed",
+                    capacity, notification.getId());
+            reject(notification, image);
+            return CompletableFuture.completedFuture(null);
+        }
+        inFlight.add(notification.getId());
+        try {
+            return executor.submit(() -> {
+                try {
+                    upload(notification, image, hash);
+                } finally {
+                    delete(image);
+                    inFlight.remove(notification.getId());
+                    backlog.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(notification.getId());
+            backlog.release();
+            log.warn("Shutting down, the image of notification {} is failed", notification.getId());
+            reject(notification, image);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Fails an image that is not uploaded, without failing the caller: the notification is already committed
+     */
+    private void reject(NotificationDto notification, Path image) {
+        delete(image);
+        try {
+            complete(notification, null, null, NotificationImageStatus.FAILED);
+        } catch (RuntimeException e) {
+            // Left PENDING, the sweep fails it once stale
+            log.warn("Could not mark the image of notification {} as failed", notification.getId(), e);
+        }
+    }
+
+    private void upload(NotificationDto notification, Path original, String hash) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(notification, null, null, NotificationImageStatus.FAILED);
+            return;
+        }
+        ProcessedImage processed = new ProcessedImage(original, null);
+        try {
+            // Processed once, only the uploads are retried
+            processed = notificationImageProcessor.process(original);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permits.release();
+            complete(notification, null, null, NotificationImageStatus.FAILED);
+            return;
+        } catch (RuntimeException e) {
+            // Such as the processor pool rejecting the image during shutdown
+            log.error("Could not process the image of notification {}", notification.getId(), e);
+            permits.release();
+            complete(notification, null, null, NotificationImageStatus.FAILED);
+            return;
+        }
+        try {
+            uploadWithRetries(notification, processed, hash);
+        } finally {
+            permits.release();
+            if (!processed.image().equals(original)) {
+                delete(processed.image());
+            }
+            if (processed.thumbnail() != null) {
+                delete(processed.thumbnail());
+            }
+        }
+    }
+
+    private void uploadWithRetries(NotificationDto notification, ProcessedImage processed, String hash) {
+        Long notificationId = notification.getId();
+        String imageUrl = null;
+        String thumbnailUrl = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                // What was uploaded by a previous attempt is not uploaded again
+                if (imageUrl == null) {
+                    imageUrl = uploadTimed(processed.image());
+                }
+                if (processed.thumbnail() != null && thumbnailUrl == null) {
+                    thumbnailUrl = uploadTimed(processed.thumbnail());
+                }
+                complete(notification, imageUrl, thumbnailUrl, NotificationImageStatus.UPLOADED);
+                log.info("Image uploaded for notification {}, URL: {}", notificationId, imageUrl);
+                rememberUpload(hash, imageUrl, thumbnailUrl);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Attempt {} of {} to upload the image of notification {} failed",
+                        attempt, maxAttempts, notificationId, e);
+            }
+            if (attempt < maxAttempts && !sleep(backoff.multipliedBy(1L << (attempt - 1)))) {
+                break;
+            }
+        }
+        log.error("Giving up uploading the image of notification {}", notificationId);
+        complete(notification, null, null, NotificationImageStatus.FAILED);
+    }
+
+    private void complete(NotificationDto notification, String photoUrl, String thumbnailUrl,
+                          NotificationImageStatus imageStatus) {
+        if (notificationRepository.updateImage(notification.getId(), photoUrl, thumbnailUrl, imageStatus) == 0) {
+            // Swept by another instance meanwhile, the image stays FAILED
+            log.warn("The image of notification {} was no longer pending, it is not set {}", notification.getId(), imageStatus);
+            return;
+        }
+        publishUpdate(notification, photoUrl, thumbnailUrl, imageStatus);
+    }
+
+    private void publishUpdate(NotificationDto notification, String photoUrl, String thumbnailUrl,
+                               NotificationImageStatus imageStatus) {
+        NotificationDto updated = new NotificationDto(notification.getId(), notification.getFarmId(),
+                notification.getSeverity(), notification.getMessage(), photoUrl, thumbnailUrl, imageStatus,
+                notification.getTimestamp());
+        // Clients showing the pending notification learn its final image without fetching it again
+        notificationStreamHub.publishUpdate(notification.getFarmId(), updated);
+    }
+
+    private void rememberUpload(String hash, String imageUrl, String thumbnailUrl) {
+        try {
+            imageHashCache.put(hash, imageUrl, thumbnailUrl);
+        } catch (RuntimeException e) {
+            // The notification is complete, the next identical image is only uploaded again
+            log.warn("Could not record the hash of the image {}", imageUrl, e);
+        }
+    }
+
+    private String uploadTimed(Path image) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return staticContentUploadService.uploadImage(image);
+        } finally {
+            uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static void delete(Path image) {
+        try {
+            Files.deleteIfExists(image);
+        } catch (IOException e) {
+            log.warn("Could not delete the temporary image file {}", image, e);
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Marks as FAILED the images still PENDING long after their notification was saved,
+     * left over by an instance stopped before their upload ended, and publishes them again.
+     * Images this instance is still uploading or about to upload are left alone.
+     * Runs on startup and then periodically.
+     * The threshold must exceed the longest wait and upload, retries included, so images handled by another
+     * instance are not swept.
+     */
+    @Scheduled(fixedDelayString = "${notifications.image-upload.sweep-interval:5m}")
+    public void failStalePendingImages() {
+        List<NotificationDto> stale = notificationRepository
+                .findDtosWithPendingImageBefore(LocalDateTime.now().minus(staleAfter)).stream()
+                .filter(notification -> !inFlight.contains(notification.getId()))
+                .toList();
+        if (stale.isEmpty()) {
+            return;
+        }
+        Set<Long> failed = new HashSet<>(notificationRepository.failPendingImages(
+                stale.stream().map(NotificationDto::getId).toList()));
+        stale.stream()
+                .filter(notification -> failed.contains(notification.getId()))
+                .forEach(notification -> publishUpdate(notification, null, null, NotificationImageStatus.FAILED));
+        if (!failed.isEmpty()) {
+            log.warn("Marked {} stale pending notification images as failed", failed.size());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Running uploads are given some time to end, those interrupted then mark their notification FAILED
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    log.warn("Notification image uploads still running at shutdown, they are swept to FAILED on restart");
+                }
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
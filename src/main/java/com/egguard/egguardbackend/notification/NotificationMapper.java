@@ -0,0 +1,32 @@
+package com.egguard.egguardbackend.notification;
+
+import com.egguard.egguardbackend.notification.request.RegisterNotificationRequest;
+
+/**
+ * Maps notifications between requests, entities and DTOs with plain accessors, without reflection
+ */
+public final class NotificationMapper {
+
+    private NotificationMapper() {
+    }
+
+    public static Notification toEntity(RegisterNotificationRequest request) {
+        return Notification.builder()
+                .message(request.getMessage())
+                .severity(request.getSeverity())
+                .build();
+    }
+
+    public static NotificationDto toDto(Notification notification) {
+        return new NotificationDto(
+                notification.getId(),
+                notification.getFarm() != null ? notification.getFarm().getId() : null,
+                notification.getSeverity(),
+                notification.getMessage(),
+                notification.getPhotoUrl(),
+                notification.getThumbnailUrl(),
+                notification.getImageStatus(),
+                notification.getTimestamp()
+        );
+    }
+}
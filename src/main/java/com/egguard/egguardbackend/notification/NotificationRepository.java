@@ -1,11 +1,58 @@
 package com.egguard.egguardbackend.notification;
 
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    Page<Notification> findByFarmId(Long farmId, Pageable pageable);
-}
\ No newline at end of file
+    // Read-only listing, selects only the DTO columns and bypasses the persistence context
+    @Query(value = "select new com.egguard.egguardbackend.notification.NotificationDto("
+            + "n.id, n.farm.id, n.severity, n.message, n.photoUrl, n.thumbnailUrl, n.imageStatus, n.timestamp) "
+            + "from Notification n where n.farm.id = :farmId",
+            countQuery = "select count(n) from Notification n where n.farm.id = :farmId")
+    Page<NotificationDto> findDtosByFarmId(@Param("farmId") Long farmId, Pageable pageable);
+
+    // The latest notifications of each farm, ranked by the database in a single query
+    @Query("select new com.egguard.egguardbackend.notification.NotificationDto("
+            + "n.id, n.farm.id, n.severity, n.message, n.photoUrl, n.thumbnailUrl, n.imageStatus, n.timestamp) "
+            + "from Notification n where n.id in ("
+            + "select r.id from (select l.id as id, row_number() over (partition by l.farm.id order by l.timestamp desc, l.id desc) as position "
+            + "from Notification l where l.farm.id in :farmIds) r where r.position <= :limit) "
+            + "order by n.farm.id, n.timestamp desc, n.id desc")
+    List<NotificationDto> findLatestDtosByFarmIds(@Param("farmIds") Collection<Long> farmIds, @Param("limit") long limit);
+
+    // Called by the image uploader once an upload ends, in its own short transaction.
+    // Only pending images are updated, so an image swept to FAILED never flips to UPLOADED
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.photoUrl = :photoUrl, n.thumbnailUrl = :thumbnailUrl, "
+            + "n.imageStatus = :imageStatus where n.id = :id "
+            + "and n.imageStatus = com.egguard.egguardbackend.shared.enums.NotificationImageStatus.PENDING")
+    int updateImage(@Param("id") Long id, @Param("photoUrl") String photoUrl, @Param("thumbnailUrl") String thumbnailUrl,
+                    @Param("imageStatus") NotificationImageStatus imageStatus);
+
+    // The status is a literal so the partial index on pending images can serve the sweep
+    @Query("select new com.egguard.egguardbackend.notification.NotificationDto("
+            + "n.id, n.farm.id, n.severity, n.message, n.photoUrl, n.thumbnailUrl, n.imageStatus, n.timestamp) "
+            + "from Notification n "
+            + "where n.imageStatus = com.egguard.egguardbackend.shared.enums.NotificationImageStatus.PENDING "
+            + "and n.timestamp < :before")
+    List<NotificationDto> findDtosWithPendingImageBefore(@Param("before") LocalDateTime before);
+
+    // Images uploaded or failed in the meantime are left out of the returned ids
+    @Transactional
+    @Query(value = "update notifications set image_status = 'FAILED' "
+            + "where id in (:ids) and image_status = 'PENDING' returning id", nativeQuery = true)
+    List<Long> failPendingImages(@Param("ids") Collection<Long> ids);
+}
@@ -1,22 +1,29 @@
 package com.egguard.egguardbackend.notification;
 
 import com.egguard.egguardbackend.farm.Farm;
-import com.egguard.egguardbackend.shared.entity.Robot;
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
 import com.egguard.egguardbackend.farm.FarmRepository;
-import com.egguard.egguardbackend.shared.repository.RobotRepository;
+import com.egguard.egguardbackend.shared.service.IRobotCacheService;
+import com.egguard.egguardbackend.notification.image.ImageHashCache;
+import com.egguard.egguardbackend.notification.image.StoredImage;
 import com.egguard.egguardbackend.notification.request.RegisterNotificationRequest;
-import com.egguard.egguardbackend.shared.service.IStaticContentUploadService;
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
+import com.egguard.egguardbackend.shared.util.TransactionUtils;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -24,39 +31,98 @@ import java.io.IOException;
 public class NotificationService implements INotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final RobotRepository robotRepository;
+    private final IRobotCacheService robotCacheService;
     private final FarmRepository farmRepository;
-    private final ModelMapper modelMapper;
-    private final IStaticContentUploadService cloudinaryService;
+    private final NotificationImageUploader notificationImageUploader;
+    private final ImageHashCache imageHashCache;
+    private final NotificationStreamHub notificationStreamHub;
+    private final TransactionTemplate transactionTemplate;
 
+    /**
+     * Saves the notification right away, with a PENDING image status when an image is provided.
+     * The image is written to disk before the transaction starts, so no connection is held meanwhile.
+     * It is uploaded once the transaction has committed, and the photo URL set when the upload completes.
+     * An image identical to one already uploaded is not uploaded again, its URLs are set right away.
+     * The notification is pushed to the farm's stream subscribers once committed, and again when the upload ends.
+     */
     @Override
-    @Transactional
     public NotificationDto registerNotification(Long robotId, RegisterNotificationRequest request, MultipartFile image) throws IOException {
-        Robot robot = robotRepository.findById(robotId)
+        RobotFarmDto robot = robotCacheService.findRobot(robotId)
                 .orElseThrow(() -> new EntityNotFoundException("Robot not found with id: " + robotId));
 
-        Farm farm = robot.getFarm();
-        if (farm == null) {
+        if (robot.getFarmId() == null) {
             throw new IllegalStateException("Robot with id " + robotId + " is not associated with any farm.");
         }
 
-        Notification notification = modelMapper.map(request, Notification.class);
-        notification.setFarm(farm);
-        
-        // Upload image to Cloudinary if provided
-        if (image != null && !image.isEmpty()) {
-            try {
-                String imageUrl = cloudinaryService.uploadImage(image);
-                notification.setPhotoUrl(imageUrl);
-                log.info("Image uploaded successfully for notification, URL: {}", imageUrl);
-            } catch (IOException e) {
-                log.error("Failed to upload image for notification", e);
-                throw e;
+        Path imageFile = spool(image);
+        try {
+            // The only read of the image before the upload, spooling it moved the file without reading it
+            String imageHash = imageFile != null ? ImageHashCache.hash(imageFile) : null;
+            // Images received before are not uploaded again, the notification reuses their URLs
+            Optional<StoredImage> storedImage = imageHash != null ? imageHashCache.find(imageHash) : Optional.empty();
+            Path uploadedFile = storedImage.isPresent() ? null : imageFile;
+            if (uploadedFile == null && imageFile != null) {
+                NotificationImageUploader.delete(imageFile);
+            }
+            return transactionTemplate.execute(status -> save(robot.getFarmId(), request, uploadedFile, imageHash, storedImage));
+        } catch (IOException | RuntimeException e) {
+            // Also covers failures before the transaction started, the file is not handed over to the uploader
+            if (imageFile != null) {
+                NotificationImageUploader.delete(imageFile);
             }
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the uploaded image to a temporary file kept once the request has ended, the uploaded part is discarded
+     * with it. Parts above the multipart threshold are already on disk in the same temporary directory,
+     * Tomcat renames them instead of copying them, no copy reaches the heap.
+     *
+     * @return the temporary file, null if no image was provided
+     */
+    private static Path spool(MultipartFile image) throws IOException {
+        if (image == null || image.isEmpty()) {
+            return null;
+        }
+        Path imageFile = Files.createTempFile("egguard-notification-", ".img");
+        try {
+            // Unlike transferTo(Path), which copies the part's stream, transferTo(File) lets the container move the part
+            image.transferTo(imageFile.toFile());
+            return imageFile;
+        } catch (IOException | RuntimeException e) {
+            NotificationImageUploader.delete(imageFile);
+            throw e;
         }
-        
+    }
+
+    private NotificationDto save(Long farmId, RegisterNotificationRequest request, Path imageFile, String imageHash,
+                                 Optional<StoredImage> storedImage) {
+        if (imageFile != null) {
+            // A rollback, even at commit, leaves the file to no one
+            TransactionUtils.afterRollback(() -> NotificationImageUploader.delete(imageFile));
+        }
+        Farm farm = farmRepository.getReferenceById(farmId);
+
+        Notification notification = NotificationMapper.toEntity(request);
+        notification.setFarm(farm);
+        if (storedImage.isPresent()) {
+            notification.setPhotoUrl(storedImage.get().getPhotoUrl());
+            notification.setThumbnailUrl(storedImage.get().getThumbnailUrl());
+            notification.setImageStatus(NotificationImageStatus.UPLOADED);
+        } else {
+            notification.setImageStatus(imageFile != null ? NotificationImageStatus.PENDING : NotificationImageStatus.NONE);
+        }
+
         Notification savedNotification = notificationRepository.save(notification);
-        return modelMapper.map(savedNotification, NotificationDto.class);
+        NotificationDto notificationDto = NotificationMapper.toDto(savedNotification);
+        // Subscribers only hear about notifications that are there to be fetched
+        TransactionUtils.afterCommit(() -> notificationStreamHub.publish(farmId, notificationDto));
+        if (imageFile != null) {
+            // Uploaded outside of the transaction, no connection is held during the upload
+            TransactionUtils.afterCommit(() -> notificationImageUploader.submit(notificationDto, imageFile, imageHash));
+        }
+        return notificationDto;
     }
 
     @Override
@@ -66,7 +132,15 @@ public class NotificationService implements INotificationService {
             throw new EntityNotFoundException("Farm not found with id: " + farmId);
         }
 
-        Page<Notification> notificationPage = notificationRepository.findByFarmId(farmId, pageable);
-        return notificationPage.map(notification -> modelMapper.map(notification, NotificationDto.class));
+        return notificationRepository.findDtosByFarmId(farmId, pageable);
+    }
+
+    @Override
+    public SseEmitter subscribeToNotifications(Long farmId) {
+        if (!farmRepository.existsById(farmId)) {
+            throw new EntityNotFoundException("Farm not found with id: " + farmId);
+        }
+
+        return notificationStreamHub.subscribe(farmId);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.egguard.egguardbackend.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of new notifications to the Server-Sent Events subscribers of their farm.
+ * A notification saved with a pending image is sent again as a "notification-updated" event, with the same id,
+ * once its image is uploaded or has failed, including images left over by a stopped instance and swept to FAILED.
+ * Publishing never blocks: each subscriber has a bounded buffer drained by its own virtual thread,
+ * and a subscriber whose buffer is full is too slow to keep up, so it is disconnected and has to reconnect.
+ * Heartbeats keep idle connections open through proxies and detect clients that went away.
+ * Subscribers are published as the "notifications.stream.subscribers" gauge, disconnected slow subscribers
+ * are counted in "notifications.stream.evicted".
+ */
+@Component
+@Slf4j
+public class NotificationStreamHub {
+
+    static final String NOTIFICATION_EVENT = "notification";
+    static final String NOTIFICATION_UPDATED_EVENT = "notification-updated";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter evictedCounter;
+
+    public NotificationStreamHub(MeterRegistry meterRegistry,
+                                 @Value("${notifications.stream.buffer-size:100}") int bufferSize,
+                                 @Value("${notifications.stream.timeout:30m}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        meterRegistry.gauge("notifications.stream.subscribers", subscriberCount);
+        this.evictedCounter = Counter.builder("notifications.stream.evicted")
+                .description("Notification stream subscribers disconnected because they could not keep up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the notifications of a farm registered from now on.
+     * The stream ends after the configured timeout, clients reconnect to go on.
+     */
+    public SseEmitter subscribe(Long farmId) {
+        return subscribe(farmId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Long farmId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(farmId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(farmId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscriber.start();
+        return emitter;
+    }
+
+    /**
+     * Sends a notification to the current subscribers of its farm, without waiting for them
+     */
+    public void publish(Long farmId, NotificationDto notification) {
+        publish(farmId, NOTIFICATION_EVENT, notification);
+    }
+
+    /**
+     * Sends a notification already published again, once its image status has changed
+     */
+    public void publishUpdate(Long farmId, NotificationDto notification) {
+        publish(farmId, NOTIFICATION_UPDATED_EVENT, notification);
+    }
+
+    private void publish(Long farmId, String eventName, NotificationDto notification) {
+        Set<Subscriber> farmSubscribers = subscribers.get(farmId);
+        if (farmSubscribers == null) {
+            return;
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event()
+                .id(String.valueOf(notification.getId()))
+                .name(eventName)
+                .data(notification);
+        farmSubscribers.forEach(subscriber -> offer(subscriber, event));
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(farmSubscribers ->
+                farmSubscribers.forEach(subscriber -> offer(subscriber, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.buffer().offer(event)) {
+            log.info("Disconnecting a slow notification stream subscriber of farm {}", subscriber.farmId());
+            evictedCounter.increment();
+            remove(subscriber);
+            subscriber.emitter().complete();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> farmSubscribers = subscribers.get(subscriber.farmId());
+        if (farmSubscribers != null && farmSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.farmId(), (id, remaining) -> remaining.isEmpty() ? null : remaining);
+            subscriber.stop();
+        }
+    }
+
+    private final class Subscriber {
+        private final Long farmId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private volatile Thread sender;
+
+        private Subscriber(Long farmId, SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> buffer) {
+            this.farmId = farmId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        Long farmId() {
+            return farmId;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        BlockingQueue<SseEmitter.SseEventBuilder> buffer() {
+            return buffer;
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("notification-stream-" + farmId).start(this::send);
+        }
+
+        void stop() {
+            Thread thread = sender;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        private void send() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    // Blocks a virtual thread only, thousands of idle subscribers cost no platform thread
+                    emitter.send(buffer.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the stream already ended
+                remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
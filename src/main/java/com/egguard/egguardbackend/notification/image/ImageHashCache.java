@@ -0,0 +1,83 @@
+package com.egguard.egguardbackend.notification.image;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Content-addressed lookup of uploaded notification images, so an image received again is not uploaded again.
+ * Images are identified by the SHA-256 of the received file, the most recent ones are kept in a bounded
+ * in-memory cache in front of the image_hashes table.
+ * Hits, misses and evictions are published as the "cache.*" metrics of the "notification-images" cache.
+ */
+@Component
+public class ImageHashCache {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StoredImageRepository storedImageRepository;
+    private final Cache<String, StoredImage> cache;
+
+    public ImageHashCache(StoredImageRepository storedImageRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${notifications.image-hashes.cache.maximum-size:10000}") long maximumSize) {
+        this.storedImageRepository = storedImageRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notification-images");
+    }
+
+    /**
+     * Reads the file once, through a fixed size buffer. Its bytes are not hashed while the upload is spooled:
+     * the container moves the spooled part instead of copying it, so there is no copy to hash along the way.
+     *
+     * @return the SHA-256 of a file as lowercase hex
+     */
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return the already uploaded image with this hash, if any
+     */
+    public Optional<StoredImage> find(String hash) {
+        // Unknown images are not cached, the loader returning null leaves no entry
+        return Optional.ofNullable(cache.get(hash, key -> storedImageRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Records the URLs an image was uploaded to
+     */
+    public void put(String hash, String photoUrl, String thumbnailUrl) {
+        storedImageRepository.insertIfAbsent(hash, photoUrl, thumbnailUrl);
+        // Both URLs are valid if a concurrent upload of the same image won the insert
+        cache.put(hash, new StoredImage(hash, photoUrl, thumbnailUrl));
+    }
+}
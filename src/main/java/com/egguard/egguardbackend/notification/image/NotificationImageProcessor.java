@@ -0,0 +1,258 @@
+package com.egguard.egguardbackend.notification.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prepares notification images before they are uploaded: camera frames are downscaled to a maximum dimension,
+ * re-encoded as JPEG and a thumbnail is produced alongside.
+ * Decoding, resizing and encoding are CPU bound, so they run on a fixed pool of workers sized to the cores
+ * ({@code notifications.image.workers}, 0 for one per core), whatever the number of uploads waiting.
+ * Large images are subsampled while decoded, so the full resolution raster is never held in memory.
+ * Each stage is timed in the "notifications.image.stage" timer, tagged by stage, and the bytes saved
+ * compared with the original files are counted in "notifications.image.bytes.saved".
+ */
+@Component
+@Slf4j
+public class NotificationImageProcessor {
+
+    private static final String FORMAT = "jpg";
+
+    private final int maxDimension;
+    private final int thumbnailDimension;
+    private final float quality;
+    private final ExecutorService workers;
+
+    private final Timer decodeTimer;
+    private final Timer resizeTimer;
+    private final Timer encodeTimer;
+    private final Timer thumbnailTimer;
+    private final Counter bytesSavedCounter;
+
+    public NotificationImageProcessor(MeterRegistry meterRegistry,
+                                      @Value("${notifications.image.max-dimension:1280}") int maxDimension,
+                                      @Value("${notifications.image.thumbnail-dimension:256}") int thumbnailDimension,
+                                      @Value("${notifications.image.quality:0.8}") float quality,
+                                      @Value("${notifications.image.workers:0}") int workers) {
+        this.maxDimension = maxDimension;
+        this.thumbnailDimension = thumbnailDimension;
+        this.quality = quality;
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(poolSize,
+                Thread.ofPlatform().name("notification-image-", 0).daemon(true).factory());
+
+        this.decodeTimer = stageTimer(meterRegistry, "decode");
+        this.resizeTimer = stageTimer(meterRegistry, "resize");
+        this.encodeTimer = stageTimer(meterRegistry, "encode");
+        this.thumbnailTimer = stageTimer(meterRegistry, "thumbnail");
+        this.bytesSavedCounter = Counter.builder("notifications.image.bytes.saved")
+                .description("Bytes not uploaded thanks to notification image preprocessing")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Processes an image on the worker pool, waiting for the result.
+     * Images that cannot be decoded are returned as they are, to be uploaded verbatim.
+     * If the caller is interrupted the processing is cancelled, and the files it produced are deleted.
+     *
+     * @param source The original image file, left in place
+     * @return the processed files, to be deleted by the caller once uploaded
+     */
+    public ProcessedImage process(Path source) throws InterruptedException {
+        // Claimed either by the worker handing its files over or by the caller giving up, whichever comes first
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<ProcessedImage> processing = workers.submit(() -> processNow(source, claimed));
+        try {
+            return processing.get();
+        } catch (ExecutionException e) {
+            log.warn("Could not process the image {}, it is uploaded as is", source, e.getCause());
+            return new ProcessedImage(source, null);
+        } catch (InterruptedException e) {
+            if (claimed.compareAndSet(false, true)) {
+                // The worker deletes whatever it produces from now on
+                processing.cancel(true);
+            } else {
+                // Already handed over, the result is about to be set
+                deleteOutputs(awaitUninterruptibly(processing), source);
+            }
+            throw e;
+        }
+    }
+
+    private ProcessedImage processNow(Path source, AtomicBoolean claimed) throws Exception {
+        ProcessedImage processed = processNow(source);
+        if (!claimed.compareAndSet(false, true)) {
+            // The caller gave up waiting, no one else knows about these files
+            deleteOutputs(processed, source);
+        }
+        return processed;
+    }
+
+    private ProcessedImage processNow(Path source) throws Exception {
+        BufferedImage decoded = decodeTimer.recordCallable(() -> decode(source, maxDimension));
+        if (decoded == null) {
+            return new ProcessedImage(source, null);
+        }
+
+        BufferedImage resized = resizeTimer.record(() -> resize(decoded, maxDimension));
+        Path image = Files.createTempFile("egguard-image-", "." + FORMAT);
+        Path thumbnail = null;
+        try {
+            encodeTimer.recordCallable(() -> encode(resized, image));
+            thumbnail = Files.createTempFile("egguard-thumbnail-", "." + FORMAT);
+            Path thumbnailFile = thumbnail;
+            thumbnailTimer.recordCallable(() -> encode(resize(resized, thumbnailDimension), thumbnailFile));
+        } catch (Exception e) {
+            Files.deleteIfExists(image);
+            if (thumbnail != null) {
+                Files.deleteIfExists(thumbnail);
+            }
+            throw e;
+        }
+
+        long saved = Files.size(source) - Files.size(image);
+        if (saved > 0) {
+            bytesSavedCounter.increment(saved);
+        } else {
+            // Already smaller than its re-encoding, the original is uploaded instead
+            Files.delete(image);
+            return new ProcessedImage(source, thumbnail);
+        }
+        return new ProcessedImage(image, thumbnail);
+    }
+
+    private static ProcessedImage awaitUninterruptibly(Future<ProcessedImage> processing) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return processing.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    return null;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void deleteOutputs(ProcessedImage processed, Path source) {
+        if (processed == null) {
+            return;
+        }
+        try {
+            if (!processed.image().equals(source)) {
+                Files.deleteIfExists(processed.image());
+            }
+            if (processed.thumbnail() != null) {
+                Files.deleteIfExists(processed.thumbnail());
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete the processed files of the image {}", source, e);
+        }
+    }
+
+    /**
+     * Decodes an image, subsampled by the largest whole factor keeping it above the maximum dimension
+     *
+     * @return the image, or null if no reader supports its format
+     */
+    static BufferedImage decode(Path source, int maxDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, largest / maxDimension);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image down so its largest side fits the maximum dimension, as an opaque RGB image
+     */
+    static BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            // JPEG has no transparency, transparent pixels are rendered on white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private Void encode(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(FORMAT).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return null;
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("notifications.image.stage")
+                .description("Time spent in each stage of notification image processing and upload")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
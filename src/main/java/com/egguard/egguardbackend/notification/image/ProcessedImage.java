@@ -0,0 +1,12 @@
+package com.egguard.egguardbackend.notification.image;
+
+import java.nio.file.Path;
+
+/**
+ * Result of preprocessing a notification image
+ *
+ * @param image     The image to upload, the original file when it could not be processed
+ * @param thumbnail The thumbnail to upload, null when the image could not be processed
+ */
+public record ProcessedImage(Path image, Path thumbnail) {
+}
@@ -0,0 +1,26 @@
+package com.egguard.egguardbackend.notification.image;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * An uploaded notification image, identified by the SHA-256 of the file received from the robot
+ */
+@Entity
+@Table(name = "image_hashes")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StoredImage {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "photo_url", nullable = false)
+    private String photoUrl;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+}
@@ -0,0 +1,20 @@
+package com.egguard.egguardbackend.notification.image;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    // The first upload of an image wins, concurrent uploads of the same image keep its URLs
+    @Transactional
+    @Modifying
+    @Query(value = "insert into image_hashes (hash, photo_url, thumbnail_url) values (:hash, :photoUrl, :thumbnailUrl) "
+            + "on conflict (hash) do nothing", nativeQuery = true)
+    void insertIfAbsent(@Param("hash") String hash, @Param("photoUrl") String photoUrl,
+                        @Param("thumbnailUrl") String thumbnailUrl);
+}
@@ -0,0 +1,14 @@
+package com.egguard.egguardbackend.shared.dto;
+
+import com.egguard.egguardbackend.shared.enums.RobotStatus;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RobotFarmDto {
+    private Long robotId;
+    private Long farmId;
+    private RobotStatus status;
+}
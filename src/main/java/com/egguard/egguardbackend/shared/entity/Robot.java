@@ -2,6 +2,7 @@ package com.egguard.egguardbackend.shared.entity;
 
 import com.egguard.egguardbackend.shared.enums.RobotStatus;
 import com.egguard.egguardbackend.farm.Farm;
+import com.egguard.egguardbackend.shared.listener.RobotCacheInvalidationListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -15,6 +16,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@EntityListeners(RobotCacheInvalidationListener.class)
 public class Robot {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,6 @@
+package com.egguard.egguardbackend.shared.enums;
+
+public enum EggDedupMode {
+    MEMORY,
+    DATABASE
+}
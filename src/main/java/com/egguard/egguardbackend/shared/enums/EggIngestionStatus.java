@@ -0,0 +1,8 @@
+package com.egguard.egguardbackend.shared.enums;
+
+public enum EggIngestionStatus {
+    QUEUED,
+    CREATED,
+    DUPLICATE,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.egguard.egguardbackend.shared.enums;
+
+public enum NotificationImageStatus {
+    NONE,
+    PENDING,
+    UPLOADED,
+    FAILED
+} 
\ No newline at end of file
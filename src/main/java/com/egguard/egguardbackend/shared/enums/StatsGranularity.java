@@ -0,0 +1,28 @@
+package com.egguard.egguardbackend.shared.enums;
+
+import java.time.Duration;
+
+public enum StatsGranularity {
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1)),
+    WEEK("week", Duration.ofDays(7));
+
+    private final String unit;
+    private final Duration bucketSize;
+
+    StatsGranularity(String unit, Duration bucketSize) {
+        this.unit = unit;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * @return the matching Postgres date_trunc field
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    public Duration getBucketSize() {
+        return bucketSize;
+    }
+}
@@ -0,0 +1,28 @@
+package com.egguard.egguardbackend.shared.listener;
+
+import com.egguard.egguardbackend.shared.entity.Robot;
+import com.egguard.egguardbackend.shared.service.IRobotCacheService;
+import com.egguard.egguardbackend.shared.util.TransactionUtils;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts robots from the robot cache when they are updated (e.g. reassigned to another farm) or removed
+ */
+@Component
+@RequiredArgsConstructor
+public class RobotCacheInvalidationListener {
+
+    // Resolved lazily, the listener is created while the entity manager factory is being built
+    private final ObjectProvider<IRobotCacheService> robotCacheService;
+
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Robot robot) {
+        Long robotId = robot.getId();
+        TransactionUtils.afterCommit(() -> robotCacheService.getObject().invalidate(robotId));
+    }
+}
@@ -1,9 +1,17 @@
 package com.egguard.egguardbackend.shared.repository;
 
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
 import com.egguard.egguardbackend.shared.entity.Robot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface RobotRepository extends JpaRepository<Robot, Long> {
-}
\ No newline at end of file
+    @Query("select new com.egguard.egguardbackend.shared.dto.RobotFarmDto(r.id, r.farm.id, r.status) " +
+            "from Robot r where r.id = :robotId")
+    Optional<RobotFarmDto> findRobotFarmById(@Param("robotId") Long robotId);
+}
@@ -0,0 +1,9 @@
+package com.egguard.egguardbackend.shared.repository;
+
+import com.egguard.egguardbackend.shared.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserRepository extends JpaRepository<User, Long> {
+}
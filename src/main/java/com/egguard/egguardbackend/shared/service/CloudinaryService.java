@@ -4,16 +4,20 @@ import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "storage.type", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryService implements IStaticContentUploadService {
 
     private final Cloudinary cloudinary;
@@ -29,7 +33,24 @@ public class CloudinaryService implements IStaticContentUploadService {
         if (file == null || file.isEmpty()) {
             return null;
         }
-        
+        // Moved or streamed to disk instead of copied to the heap, the upload then streams from the file
+        Path spooled = Files.createTempFile("egguard-upload-", ".img");
+        try {
+            file.transferTo(spooled);
+            return uploadImage(spooled);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    /**
+     * Uploads an image file to Cloudinary, streaming it from disk
+     *
+     * @param image the path of the image file, left in place
+     * @return the URL of the uploaded image
+     * @throws IOException if there's an error uploading the image
+     */
+    public String uploadImage(Path image) throws IOException {
         try {
             String publicId =  PUBLIC_ID_BASE + UUID.randomUUID();
             
@@ -40,7 +61,7 @@ public class CloudinaryService implements IStaticContentUploadService {
                 "resource_type", "image"
             );
             
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), params);
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(image.toFile(), params);
             
             String imageUrl = (String) uploadResult.get("secure_url");
             log.info("Image uploaded successfully to: {}", imageUrl);
@@ -0,0 +1,23 @@
+package com.egguard.egguardbackend.shared.service;
+
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
+
+import java.util.Optional;
+
+// Interface for the cache resolving robots to their farm
+public interface IRobotCacheService {
+    /**
+     * Gets the farm and status of a robot, from the cache when possible
+     */
+    Optional<RobotFarmDto> findRobot(Long robotId);
+
+    /**
+     * Drops a robot from the cache, to be called when it is reassigned or removed
+     */
+    void invalidate(Long robotId);
+
+    /**
+     * Drops every robot from the cache
+     */
+    void invalidateAll();
+}
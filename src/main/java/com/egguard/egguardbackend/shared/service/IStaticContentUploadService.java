@@ -3,7 +3,9 @@ package com.egguard.egguardbackend.shared.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public interface IStaticContentUploadService {
     public String uploadImage(MultipartFile file) throws IOException;
+    public String uploadImage(Path image) throws IOException;
 }
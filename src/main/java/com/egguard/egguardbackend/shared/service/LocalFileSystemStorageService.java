@@ -0,0 +1,124 @@
+package com.egguard.egguardbackend.shared.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Stores images in a local or network mounted directory, for farms without internet access.
+ * Enabled with {@code storage.type=local}. Images are copied between channels, so the kernel moves the bytes,
+ * and written under a temporary name then renamed, so a stored file is always complete.
+ * Stored files are never modified, they are served by {@link com.egguard.egguardbackend.shared.controller.LocalImageController}.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+public class LocalFileSystemStorageService implements IStaticContentUploadService {
+
+    /**
+     * Names of the stored images, anything else is never read from the directory
+     */
+    public static final Pattern IMAGE_NAME = Pattern.compile("[0-9a-f-]{36}\\.(jpg|png|gif|webp|bin)");
+
+    private final Path directory;
+    private final String baseUrl;
+
+    public LocalFileSystemStorageService(@Value("${storage.local.directory}") Path directory,
+                                         @Value("${storage.local.base-url:/api/v1/images}") String baseUrl) throws IOException {
+        this.directory = Files.createDirectories(directory).toRealPath();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public String uploadImage(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        Path spooled = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            file.transferTo(spooled);
+            return store(spooled);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    @Override
+    public String uploadImage(Path image) throws IOException {
+        Path copy = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            try (FileChannel source = FileChannel.open(image, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+                target.force(false);
+            }
+            return store(copy);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    /**
+     * @return the stored image with this name, if the name is valid and the image exists
+     */
+    public Optional<Path> find(String name) {
+        if (!IMAGE_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path image = directory.resolve(name);
+        return Files.isRegularFile(image) ? Optional.of(image) : Optional.empty();
+    }
+
+    /**
+     * Moves a complete temporary file to its final name in the directory
+     */
+    private String store(Path temporary) throws IOException {
+        String name = UUID.randomUUID() + "." + extensionOf(temporary);
+        Files.move(temporary, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        String imageUrl = baseUrl + "/" + name;
+        log.info("Image stored locally, URL: {}", imageUrl);
+        return imageUrl;
+    }
+
+    /**
+     * Recognizes the image format from the first bytes of the file
+     */
+    static String extensionOf(Path image) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            int read;
+            do {
+                read = channel.read(header);
+            } while (read > 0 && header.hasRemaining());
+        }
+        byte[] bytes = header.array();
+        if (header.position() >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (header.position() >= 4 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+            return "png";
+        }
+        if (header.position() >= 4 && bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == '8') {
+            return "gif";
+        }
+        if (header.position() >= 12 && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return "webp";
+        }
+        return "bin";
+    }
+}
@@ -0,0 +1,53 @@
+package com.egguard.egguardbackend.shared.service;
+
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
+import com.egguard.egguardbackend.shared.repository.RobotRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded cache of robot id to farm and status, so registrations don't query the robot on every request.
+ * Hits, misses and evictions are published as the "cache.*" metrics of the "robots" cache.
+ */
+@Service
+public class RobotCacheService implements IRobotCacheService {
+
+    private final RobotRepository robotRepository;
+    private final Cache<Long, RobotFarmDto> cache;
+
+    public RobotCacheService(RobotRepository robotRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${robots.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${robots.cache.time-to-live:10m}") Duration timeToLive) {
+        this.robotRepository = robotRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "robots");
+    }
+
+    @Override
+    public Optional<RobotFarmDto> findRobot(Long robotId) {
+        // Unknown robots are not cached, the loader returning null leaves no entry
+        return Optional.ofNullable(cache.get(robotId, id -> robotRepository.findRobotFarmById(id).orElse(null)));
+    }
+
+    @Override
+    public void invalidate(Long robotId) {
+        cache.invalidate(robotId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
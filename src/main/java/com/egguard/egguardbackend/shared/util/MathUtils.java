@@ -15,6 +15,23 @@ public class MathUtils {
      * @return the Euclidean distance between the two points
      */
     public static double calculateDistance(double x1, double y1, double x2, double y2) {
-        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+        return Math.sqrt(squaredDistance(x1, y1, x2, y2));
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between two points in a 2D plane.
+     * Cheaper than {@link #calculateDistance} when distances are only compared against a threshold,
+     * as long as the threshold is squared too.
+     *
+     * @param x1 x-coordinate of the first point
+     * @param y1 y-coordinate of the first point
+     * @param x2 x-coordinate of the second point
+     * @param y2 y-coordinate of the second point
+     * @return the squared Euclidean distance between the two points
+     */
+    public static double squaredDistance(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy;
     }
 } 
\ No newline at end of file
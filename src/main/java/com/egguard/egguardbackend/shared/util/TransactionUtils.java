@@ -0,0 +1,50 @@
+package com.egguard.egguardbackend.shared.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for hooking work onto the current transaction
+ */
+public class TransactionUtils {
+
+    /**
+     * Runs the given action once the current transaction has committed.
+     * If no transaction is active the action is run immediately.
+     *
+     * @param action the action to run after commit
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the given action once the current transaction has ended without committing,
+     * whether it was rolled back or its outcome is unknown.
+     * If no transaction is active nothing is run.
+     *
+     * @param action the action to run after rollback
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,12 @@
+-- Uploaded notification images by SHA-256 of the received file, so identical images are uploaded once
+create table image_hashes
+(
+    hash          char(64)     not null
+        primary key,
+    photo_url     varchar(255) not null,
+    thumbnail_url varchar(255),
+    created_at    timestamp(6) not null default localtimestamp
+);
+
+alter table image_hashes
+    owner to egguard_user;
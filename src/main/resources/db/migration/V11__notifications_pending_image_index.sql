@@ -0,0 +1,3 @@
+-- Pending images are few, the stale image sweep only scans them
+create index notifications_pending_image_idx on notifications (timestamp)
+    where image_status = 'PENDING';
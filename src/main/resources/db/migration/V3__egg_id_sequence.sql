@@ -0,0 +1,16 @@
+-- Eggs get their ids from a pooled sequence instead of an identity column,
+-- so Hibernate can batch egg inserts
+alter table eggs
+    alter column id drop identity if exists;
+
+create sequence eggs_id_seq
+    increment by 50
+    owned by eggs.id;
+
+alter sequence eggs_id_seq
+    owner to egguard_user;
+
+select setval('eggs_id_seq', coalesce((select max(id) from eggs), 0) + 1, false);
+
+alter table eggs
+    alter column id set default nextval('eggs_id_seq');
@@ -0,0 +1,4 @@
+-- Supports the bounding-box duplicate check, which only looks at unpicked eggs of a farm
+create index eggs_unpicked_farm_coords_idx
+    on eggs (farm_id, coord_x, coord_y)
+    where picked = false;
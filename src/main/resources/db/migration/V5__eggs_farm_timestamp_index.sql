@@ -0,0 +1,3 @@
+-- Supports keyset pagination and streaming of egg listings, newest first
+create index eggs_farm_timestamp_id_idx
+    on eggs (farm_id, timestamp desc, id desc);
@@ -0,0 +1,26 @@
+-- Daily egg counters per farm, so stats are summed over days instead of counted over eggs.
+-- Eggs are counted on their detection day, the application keeps the counters up to date.
+create table farm_daily_egg_stats
+(
+    farm_id       bigint not null
+        constraint fk_farm_daily_egg_stats_farm
+            references farms,
+    day           date   not null,
+    detected      bigint not null default 0,
+    picked        bigint not null default 0,
+    picked_broken bigint not null default 0,
+    primary key (farm_id, day)
+);
+
+alter table farm_daily_egg_stats
+    owner to egguard_user;
+
+-- Backfill from the existing eggs
+insert into farm_daily_egg_stats (farm_id, day, detected, picked, picked_broken)
+select farm_id,
+       cast(timestamp as date),
+       count(*),
+       count(*) filter (where picked),
+       count(*) filter (where picked and broken)
+from eggs
+group by farm_id, cast(timestamp as date);
@@ -0,0 +1,18 @@
+-- When each egg was picked, unknown for the eggs picked before this migration
+alter table eggs
+    add column picked_at timestamp;
+
+-- Per-farm histograms of the time eggs wait between detection and pick, one row per non-empty bucket.
+-- Buckets are log-linear over seconds, the application adds its pending counts periodically.
+create table farm_pick_latency_buckets
+(
+    farm_id bigint   not null
+        constraint fk_farm_pick_latency_buckets_farm
+            references farms,
+    bucket  smallint not null,
+    count   bigint   not null default 0,
+    primary key (farm_id, bucket)
+);
+
+alter table farm_pick_latency_buckets
+    owner to egguard_user;
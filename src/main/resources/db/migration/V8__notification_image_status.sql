@@ -0,0 +1,9 @@
+-- Images are uploaded after the notification is saved, this tracks where each upload stands
+alter table notifications
+    add column image_status varchar(20) not null default 'NONE'
+        constraint notifications_image_status_check
+            check (image_status in ('NONE', 'PENDING', 'UPLOADED', 'FAILED'));
+
+update notifications
+set image_status = 'UPLOADED'
+where photo_url is not null;
@@ -0,0 +1,3 @@
+-- Small preview of the notification image, produced when the image is preprocessed before upload
+alter table notifications
+    add column thumbnail_url varchar(255);
@@ -0,0 +1,141 @@
+package com.egguard.egguardbackend.dashboard;
+
+import com.egguard.egguardbackend.dashboard.exception.DashboardTimeoutException;
+import com.egguard.egguardbackend.egg.EggRepository;
+import com.egguard.egguardbackend.egg.FarmEggCount;
+import com.egguard.egguardbackend.farm.*;
+import com.egguard.egguardbackend.notification.NotificationDto;
+import com.egguard.egguardbackend.notification.NotificationRepository;
+import com.egguard.egguardbackend.shared.enums.NotificationSeverity;
+import com.egguard.egguardbackend.shared.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DashboardServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FarmRepository farmRepository;
+
+    @Mock
+    private FarmDailyEggStatsRepository farmDailyEggStatsRepository;
+
+    @Mock
+    private EggRepository eggRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private PickLatencyTracker pickLatencyTracker;
+
+    private DashboardService dashboardService;
+
+    private final LocalDate from = LocalDate.of(2025, 4, 17);
+    private final LocalDate to = from.plusDays(6);
+    private final List<Long> farmIds = List.of(1L, 2L);
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(userRepository, farmRepository, farmDailyEggStatsRepository,
+                eggRepository, notificationRepository, pickLatencyTracker, Duration.ofMillis(500), 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    @DisplayName("getUserDashboard() should build every farm of the user from one query per kind of data")
+    void getUserDashboardShouldBuildAllFarms() {
+        NotificationDto notification = NotificationDto.builder()
+                .id(7L)
+                .farmId(2L)
+                .severity(NotificationSeverity.CRITICAL)
+                .message("Robot stuck")
+                .timestamp(LocalDateTime.now())
+                .build();
+        when(farmRepository.findSummariesByUserId(1L))
+                .thenReturn(List.of(new FarmSummaryDto(1L, "North"), new FarmSummaryDto(2L, "South")));
+        when(farmDailyEggStatsRepository.sumByFarms(farmIds, from, to))
+                .thenReturn(List.of(new FarmEggCounts(1L, 10L, 8L, 2L)));
+        when(eggRepository.countUnpickedByFarms(farmIds)).thenReturn(List.of(new FarmEggCount(2L, 3L)));
+        when(notificationRepository.findLatestDtosByFarmIds(farmIds, 5)).thenReturn(List.of(notification));
+        when(pickLatencyTracker.getPercentiles(farmIds)).thenReturn(Map.of(1L, new PickLatencyPercentiles(600L, 900L, 1200L)));
+
+        UserDashboardDto result = dashboardService.getUserDashboard(1L, from, to);
+
+        assertEquals(2, result.getFarms().size());
+        FarmDashboardDto north = result.getFarms().get(0);
+        assertEquals(10L, north.getDetectedEggs());
+        assertEquals(8L, north.getPickedEggs());
+        assertEquals(25.0, north.getBrokenEggsPercentage(), 0.1);
+        assertEquals(0L, north.getUnpickedEggs());
+        assertEquals(600L, north.getPickLatencyP50Seconds());
+        assertTrue(north.getLatestNotifications().isEmpty());
+        FarmDashboardDto south = result.getFarms().get(1);
+        assertEquals(0L, south.getDetectedEggs());
+        assertEquals(3L, south.getUnpickedEggs());
+        assertNull(south.getPickLatencyP50Seconds());
+        assertEquals(List.of(notification), south.getLatestNotifications());
+        // Users owning farms exist, no check needed
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("getUserDashboard() should return an empty dashboard without querying farm data when the user has no farms")
+    void getUserDashboardShouldBeEmptyWithoutFarms() {
+        when(farmRepository.findSummariesByUserId(1L)).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        UserDashboardDto result = dashboardService.getUserDashboard(1L, from, to);
+
+        assertTrue(result.getFarms().isEmpty());
+        verifyNoInteractions(farmDailyEggStatsRepository, eggRepository, notificationRepository, pickLatencyTracker);
+    }
+
+    @Test
+    @DisplayName("getUserDashboard() should throw EntityNotFoundException when the user is not found")
+    void getUserDashboardShouldThrowExceptionWhenUserNotFound() {
+        when(farmRepository.findSummariesByUserId(99L)).thenReturn(List.of());
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> dashboardService.getUserDashboard(99L, from, to));
+    }
+
+    @Test
+    @DisplayName("getUserDashboard() should throw DashboardTimeoutException when a query outlives the deadline")
+    void getUserDashboardShouldTimeOut() {
+        when(farmRepository.findSummariesByUserId(1L)).thenReturn(List.of(new FarmSummaryDto(1L, "North")));
+        lenient().when(farmDailyEggStatsRepository.sumByFarms(any(), any(), any())).thenReturn(List.of());
+        lenient().when(eggRepository.countUnpickedByFarms(any())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        lenient().when(notificationRepository.findLatestDtosByFarmIds(any(), anyLong())).thenReturn(List.of());
+        lenient().when(pickLatencyTracker.getPercentiles(anyCollection())).thenReturn(Map.of());
+
+        long start = System.nanoTime();
+        assertThrows(DashboardTimeoutException.class, () -> dashboardService.getUserDashboard(1L, from, to));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+}
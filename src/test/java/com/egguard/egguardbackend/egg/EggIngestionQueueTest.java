@@ -0,0 +1,130 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.exception.EggIngestionQueueFullException;
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.shared.enums.EggIngestionStatus;
+import com.egguard.egguardbackend.shared.enums.EggRegistrationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EggIngestionQueueTest {
+
+    @Mock
+    private IEggService eggService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EggIngestionQueue eggIngestionQueue;
+    private RegisterEggRequest registerEggRequest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        eggIngestionQueue = new EggIngestionQueue(eggService, meterRegistry, "async", 2, 10, Duration.ofMillis(20));
+        registerEggRequest = new RegisterEggRequest(10.0, 20.0, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eggIngestionQueue.stop();
+    }
+
+    @Test
+    @DisplayName("enqueue() should reject eggs when the queue is not started")
+    void enqueueShouldRejectEggsWhenNotStarted() {
+        assertThrows(EggIngestionQueueFullException.class, () -> {
+            eggIngestionQueue.enqueue(1L, registerEggRequest);
+        });
+        assertEquals(1.0, meterRegistry.get("eggs.ingestion.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("enqueue() should reject eggs when the queue is full")
+    void enqueueShouldRejectEggsWhenQueueIsFull() throws Exception {
+        // Keeps the flusher busy with the first egg while the queue fills up
+        CountDownLatch release = new CountDownLatch(1);
+        when(eggService.registerEggs(eq(1L), anyList())).thenAnswer(invocation -> {
+            release.await(2, TimeUnit.SECONDS);
+            return List.of();
+        });
+        eggIngestionQueue.start();
+
+        eggIngestionQueue.enqueue(1L, registerEggRequest);
+        verify(eggService, timeout(1000)).registerEggs(eq(1L), anyList());
+        eggIngestionQueue.enqueue(1L, registerEggRequest);
+        eggIngestionQueue.enqueue(1L, registerEggRequest);
+
+        EggIngestionQueueFullException exception = assertThrows(EggIngestionQueueFullException.class, () -> {
+            eggIngestionQueue.enqueue(1L, registerEggRequest);
+        });
+        assertEquals(Duration.ofMillis(20), exception.getRetryAfter());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("flush() should register queued eggs per robot and track their results")
+    void flushShouldRegisterEggsPerRobotAndTrackResults() {
+        EggDto eggDto = EggDto.builder().id(7L).build();
+        EggIngestionQueue.PendingEgg created = new EggIngestionQueue.PendingEgg(
+                UUID.randomUUID(), 1L, registerEggRequest, System.nanoTime());
+        EggIngestionQueue.PendingEgg duplicate = new EggIngestionQueue.PendingEgg(
+                UUID.randomUUID(), 1L, registerEggRequest, System.nanoTime());
+        EggIngestionQueue.PendingEgg failed = new EggIngestionQueue.PendingEgg(
+                UUID.randomUUID(), 2L, registerEggRequest, System.nanoTime());
+
+        when(eggService.registerEggs(1L, List.of(registerEggRequest, registerEggRequest))).thenReturn(List.of(
+                new EggBatchResultDto(0, EggRegistrationStatus.CREATED, eggDto),
+                new EggBatchResultDto(1, EggRegistrationStatus.DUPLICATE, null)
+        ));
+        when(eggService.registerEggs(2L, List.of(registerEggRequest)))
+                .thenThrow(new EntityNotFoundException("Robot not found with id: 2"));
+
+        eggIngestionQueue.flush(List.of(created, duplicate, failed));
+
+        assertEquals(EggIngestionStatus.CREATED, eggIngestionQueue.getIngestion(created.trackingId()).orElseThrow().getStatus());
+        assertEquals(7L, eggIngestionQueue.getIngestion(created.trackingId()).orElseThrow().getEggId());
+        assertEquals(EggIngestionStatus.DUPLICATE, eggIngestionQueue.getIngestion(duplicate.trackingId()).orElseThrow().getStatus());
+        assertEquals(EggIngestionStatus.FAILED, eggIngestionQueue.getIngestion(failed.trackingId()).orElseThrow().getStatus());
+        assertEquals(1L, meterRegistry.get("eggs.ingestion.flush").timer().count());
+        assertEquals(3L, meterRegistry.get("eggs.ingestion.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("stop() should register every queued egg before returning")
+    void stopShouldDrainQueuedEggs() {
+        when(eggService.registerEggs(eq(1L), anyList())).thenAnswer(invocation -> {
+            List<RegisterEggRequest> requests = invocation.getArgument(1);
+            return IntStream.range(0, requests.size())
+                    .mapToObj(i -> new EggBatchResultDto(i, EggRegistrationStatus.DUPLICATE, null))
+                    .toList();
+        });
+        eggIngestionQueue.start();
+
+        EggIngestionDto first = eggIngestionQueue.enqueue(1L, registerEggRequest);
+        EggIngestionDto second = eggIngestionQueue.enqueue(1L, registerEggRequest);
+        eggIngestionQueue.stop();
+
+        assertEquals(EggIngestionStatus.DUPLICATE, eggIngestionQueue.getIngestion(first.getTrackingId()).orElseThrow().getStatus());
+        assertEquals(EggIngestionStatus.DUPLICATE, eggIngestionQueue.getIngestion(second.getTrackingId()).orElseThrow().getStatus());
+        assertThrows(EggIngestionQueueFullException.class, () -> {
+            eggIngestionQueue.enqueue(1L, registerEggRequest);
+        });
+    }
+}
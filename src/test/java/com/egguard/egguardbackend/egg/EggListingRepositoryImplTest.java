@@ -0,0 +1,71 @@
+package com.egguard.egguardbackend.egg;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EggListingRepositoryImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private EggListingRepositoryImpl eggListingRepository;
+
+    @Test
+    @DisplayName("the cursor should be a row-value comparison, an index range on (farm_id, timestamp, id)")
+    void jpqlShouldCompareCursorAsRowValue() {
+        String jpql = EggListingRepositoryImpl.jpql(false, false, true, true);
+
+        assertTrue(jpql.contains("where e.farm.id = :farmId and (e.timestamp, e.id) < (:cursorTimestamp, :cursorId) "));
+        assertTrue(jpql.endsWith("order by e.timestamp desc, e.id desc"));
+        assertFalse(jpql.contains("is null"));
+        assertFalse(jpql.contains(" or "));
+    }
+
+    @Test
+    @DisplayName("the filters should only be part of the query when given")
+    void jpqlShouldOnlyFilterOnGivenCriteria() {
+        String unfiltered = EggListingRepositoryImpl.jpql(false, false, false, false);
+        String filtered = EggListingRepositoryImpl.jpql(true, true, false, false);
+
+        assertFalse(unfiltered.contains(":picked"));
+        assertFalse(unfiltered.contains(":start"));
+        assertFalse(unfiltered.contains("order by"));
+        assertTrue(filtered.contains("and e.picked = :picked "));
+        assertTrue(filtered.contains("and e.timestamp between :start and :end "));
+    }
+
+    @Test
+    @DisplayName("findPageByFarmAfter() should bind the cursor and limit only")
+    @SuppressWarnings("unchecked")
+    void findPageByFarmAfterShouldBindCursorAndLimit() {
+        TypedQuery<EggDto> query = mock(TypedQuery.class, RETURNS_SELF);
+        LocalDateTime cursorTimestamp = LocalDateTime.of(2025, 4, 1, 12, 0);
+        when(entityManager.createQuery(EggListingRepositoryImpl.jpql(false, false, true, true), EggDto.class))
+                .thenReturn(query);
+        doReturn(List.of()).when(query).getResultList();
+
+        List<EggDto> eggs = eggListingRepository.findPageByFarmAfter(1L, null, null, null, cursorTimestamp, 5L, Limit.of(11));
+
+        assertTrue(eggs.isEmpty());
+        verify(query).setParameter("farmId", 1L);
+        verify(query).setParameter("cursorTimestamp", cursorTimestamp);
+        verify(query).setParameter("cursorId", 5L);
+        verify(query).setMaxResults(11);
+        verify(query, never()).setParameter(eq("picked"), any());
+    }
+}
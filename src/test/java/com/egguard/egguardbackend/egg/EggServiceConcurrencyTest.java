@@ -0,0 +1,155 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.exception.DuplicateEggException;
+import com.egguard.egguardbackend.egg.lock.StripedEggLockService;
+import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.farm.Farm;
+import com.egguard.egguardbackend.farm.FarmDailyEggStatsRepository;
+import com.egguard.egguardbackend.farm.FarmRepository;
+import com.egguard.egguardbackend.farm.FarmStatsCache;
+import com.egguard.egguardbackend.farm.PickLatencyTracker;
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
+import com.egguard.egguardbackend.shared.enums.RobotStatus;
+import com.egguard.egguardbackend.shared.service.IRobotCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EggServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Mock
+    private EggRepository eggRepository;
+
+    @Mock
+    private IRobotCacheService robotCacheService;
+
+    @Mock
+    private FarmRepository farmRepository;
+
+    @Mock
+    private FarmDailyEggStatsRepository farmDailyEggStatsRepository;
+
+    @Mock
+    private FarmStatsCache farmStatsCache;
+
+    @Mock
+    private PickLatencyTracker pickLatencyTracker;
+
+    @Spy
+    private EggSpatialIndex eggSpatialIndex;
+
+    @Spy
+    private StripedEggLockService eggLockService;
+
+    @InjectMocks
+    private EggService eggService;
+
+    private final Queue<Egg> savedEggs = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        Farm testFarm = Farm.builder()
+                .id(1L)
+                .name("Test Farm")
+                .build();
+        RobotFarmDto testRobot = RobotFarmDto.builder()
+                .robotId(1L)
+                .farmId(1L)
+                .status(RobotStatus.ACTIVE)
+                .build();
+        AtomicLong ids = new AtomicLong();
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(new ArrayList<>());
+        when(eggRepository.save(any(Egg.class))).thenAnswer(invocation -> {
+            Egg egg = invocation.getArgument(0);
+            Thread.sleep(1); // Widens the window between the duplicate check and the insert
+            egg.setId(ids.incrementAndGet());
+            savedEggs.add(egg);
+            return egg;
+        });
+    }
+
+    @Test
+    @DisplayName("registerEgg() should register exactly one egg when many robots report the same egg at once")
+    void registerEggShouldNotRegisterDuplicatesUnderContention() throws Exception {
+        int duplicates = registerConcurrently(i -> new RegisterEggRequest(10.0 + (i % 4) * 0.001, 20.0, false));
+
+        assertEquals(1, savedEggs.size());
+        assertEquals(THREADS - 1, duplicates);
+    }
+
+    @Test
+    @DisplayName("registerEgg() should register exactly one egg when the reports straddle a grid cell boundary")
+    void registerEggShouldNotRegisterDuplicatesAcrossCellBoundaries() throws Exception {
+        // 0.05 is both the cell size and the threshold, these positions fall in two different cells
+        int duplicates = registerConcurrently(i -> new RegisterEggRequest(i % 2 == 0 ? 0.049 : 0.051, 0.0, false));
+
+        assertEquals(1, savedEggs.size());
+        assertEquals(THREADS - 1, duplicates);
+    }
+
+    @Test
+    @DisplayName("registerEgg() should register every egg when robots report eggs far from each other at once")
+    void registerEggShouldRegisterDistantEggsConcurrently() throws Exception {
+        int duplicates = registerConcurrently(i -> new RegisterEggRequest(i * 1.0, 0.0, false));
+
+        assertEquals(THREADS, savedEggs.size());
+        assertEquals(0, duplicates);
+        // The detection day comes from the timestamp set by the service, nothing is generated on save
+        verify(farmDailyEggStatsRepository, times(THREADS)).addDetected(eq(1L), any(LocalDate.class), eq(1L));
+    }
+
+    /**
+     * Registers one egg per thread, all threads starting at the same time
+     *
+     * @return the number of registrations rejected as duplicates
+     */
+    private int registerConcurrently(IntFunction<RegisterEggRequest> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                RegisterEggRequest request = requests.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        eggService.registerEgg(1L, request);
+                    } catch (DuplicateEggException e) {
+                        duplicates.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return duplicates.get();
+    }
+}
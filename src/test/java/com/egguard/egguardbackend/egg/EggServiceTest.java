@@ -1,12 +1,22 @@
 package com.egguard.egguardbackend.egg;
 
 import com.egguard.egguardbackend.farm.Farm;
-import com.egguard.egguardbackend.shared.entity.Robot;
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
+import com.egguard.egguardbackend.shared.enums.RobotStatus;
 import com.egguard.egguardbackend.egg.exception.DuplicateEggException;
+import com.egguard.egguardbackend.egg.lock.StripedEggLockService;
+import com.egguard.egguardbackend.farm.FarmDailyEggStatsRepository;
 import com.egguard.egguardbackend.farm.FarmRepository;
-import com.egguard.egguardbackend.shared.repository.RobotRepository;
+import com.egguard.egguardbackend.farm.FarmStatsCache;
+import com.egguard.egguardbackend.farm.PickLatencyBucketCount;
+import com.egguard.egguardbackend.farm.PickLatencyTracker;
+import com.egguard.egguardbackend.shared.service.IRobotCacheService;
+import com.egguard.egguardbackend.egg.request.EggPositionRequest;
 import com.egguard.egguardbackend.egg.request.PickEggsRequest;
 import com.egguard.egguardbackend.egg.request.RegisterEggRequest;
+import com.egguard.egguardbackend.shared.enums.EggDedupMode;
+import com.egguard.egguardbackend.shared.enums.EggPickStatus;
+import com.egguard.egguardbackend.shared.enums.EggRegistrationStatus;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,7 +24,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -22,6 +33,8 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,18 +46,31 @@ public class EggServiceTest {
     private EggRepository eggRepository;
 
     @Mock
-    private RobotRepository robotRepository;
+    private IRobotCacheService robotCacheService;
 
     @Mock
     private FarmRepository farmRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private FarmDailyEggStatsRepository farmDailyEggStatsRepository;
+
+    @Mock
+    private FarmStatsCache farmStatsCache;
+
+    @Mock
+    private PickLatencyTracker pickLatencyTracker;
+
+    @Spy
+    private EggSpatialIndex eggSpatialIndex;
+
+    @Spy
+    private StripedEggLockService eggLockService;
 
     @InjectMocks
     private EggService eggService;
 
-    private Robot testRobot;
+    private Farm testFarm;
+    private RobotFarmDto testRobot;
     private Egg testEgg;
     private RegisterEggRequest registerEggRequest;
     private EggDto eggDto;
@@ -52,14 +78,15 @@ public class EggServiceTest {
 
     @BeforeEach
     void setUp() {
-        Farm testFarm = Farm.builder()
+        testFarm = Farm.builder()
                 .id(1L)
                 .name("Test Farm")
                 .build();
 
-        testRobot = Robot.builder()
-                .id(1L)
-                .farm(testFarm)
+        testRobot = RobotFarmDto.builder()
+                .robotId(1L)
+                .farmId(1L)
+                .status(RobotStatus.ACTIVE)
                 .build();
 
         registerEggRequest = RegisterEggRequest.builder()
@@ -92,11 +119,10 @@ public class EggServiceTest {
     @Test
     @DisplayName("registerEgg() should register a new egg successfully")
     void registerEggShouldRegisterSuccessfully() {
-        when(robotRepository.findById(1L)).thenReturn(Optional.of(testRobot));
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
         when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(new ArrayList<>());
-        when(modelMapper.map(registerEggRequest, Egg.class)).thenReturn(testEgg);
         when(eggRepository.save(any(Egg.class))).thenReturn(testEgg);
-        when(modelMapper.map(testEgg, EggDto.class)).thenReturn(eggDto);
 
         EggDto result = eggService.registerEgg(1L, registerEggRequest);
 
@@ -106,12 +132,44 @@ public class EggServiceTest {
         assertEquals(20.0, result.getCoordY());
         assertFalse(result.getPicked());
         assertFalse(result.getBroken());
+        verify(farmDailyEggStatsRepository).addDetected(1L, testEgg.getTimestamp().toLocalDate(), 1L);
+    }
+
+    @Test
+    @DisplayName("registerEgg() should return the detection time of an egg whose insert is deferred to the flush")
+    void registerEggShouldSetTimestampBeforeSaving() {
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(new ArrayList<>());
+        // Nothing is generated on save, as with the pooled sequence ids
+        when(eggRepository.save(any(Egg.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EggDto result = eggService.registerEgg(1L, registerEggRequest);
+
+        assertNotNull(result.getTimestamp());
+        verify(farmDailyEggStatsRepository).addDetected(1L, result.getTimestamp().toLocalDate(), 1L);
+    }
+
+    @Test
+    @DisplayName("registerEggs() should return the detection time of every created egg")
+    void registerEggsShouldSetTimestampsBeforeSaving() {
+        RegisterEggRequest otherEggRequest = new RegisterEggRequest(30.0, 20.0, false);
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(new ArrayList<>());
+        when(eggRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<EggBatchResultDto> results = eggService.registerEggs(1L, List.of(registerEggRequest, otherEggRequest));
+
+        assertEquals(2, results.size());
+        results.forEach(result -> assertNotNull(result.getEgg().getTimestamp()));
+        verify(farmDailyEggStatsRepository).addDetected(1L, results.getFirst().getEgg().getTimestamp().toLocalDate(), 2L);
     }
 
     @Test
     @DisplayName("registerEgg() should throw EntityNotFoundException when robot is not found")
     void registerEggShouldThrowExceptionWhenRobotNotFound() {
-        when(robotRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(robotCacheService.findRobot(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> {
             eggService.registerEgg(99L, registerEggRequest);
@@ -121,12 +179,12 @@ public class EggServiceTest {
     @Test
     @DisplayName("registerEgg() should throw IllegalStateException when robot has no farm")
     void registerEggShouldThrowExceptionWhenRobotHasNoFarm() {
-        Robot robotWithoutFarm = Robot.builder()
-                .id(2L)
-                .farm(null)
+        RobotFarmDto robotWithoutFarm = RobotFarmDto.builder()
+                .robotId(2L)
+                .farmId(null)
                 .build();
         
-        when(robotRepository.findById(2L)).thenReturn(Optional.of(robotWithoutFarm));
+        when(robotCacheService.findRobot(2L)).thenReturn(Optional.of(robotWithoutFarm));
 
         assertThrows(IllegalStateException.class, () -> {
             eggService.registerEgg(2L, registerEggRequest);
@@ -139,7 +197,8 @@ public class EggServiceTest {
         List<Egg> existingEggs = new ArrayList<>();
         existingEggs.add(testEgg);
         
-        when(robotRepository.findById(1L)).thenReturn(Optional.of(testRobot));
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
         when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(existingEggs);
         assertThrows(DuplicateEggException.class, () -> {
             eggService.registerEgg(1L, registerEggRequest);
@@ -155,14 +214,199 @@ public class EggServiceTest {
         testEgg.setCoordX(testEgg.getCoordX() + 0.001);
         testEgg.setCoordY(testEgg.getCoordY() + 0.001);
 
-        when(robotRepository.findById(1L)).thenReturn(Optional.of(testRobot));
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(existingEggs);
+
+        assertThrows(DuplicateEggException.class, () -> {
+            eggService.registerEgg(1L, registerEggRequest);
+        });
+    }
+
+    @Test
+    @DisplayName("registerEgg() should register an egg just outside the duplicate distance of an existing one")
+    void registerEggShouldRegisterWhenEggIsOutsideDuplicateDistance() {
+        List<Egg> existingEggs = new ArrayList<>();
+        existingEggs.add(testEgg.toBuilder().coordX(testEgg.getCoordX() + 0.06).build());
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
         when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(existingEggs);
+        when(eggRepository.save(any(Egg.class))).thenReturn(testEgg);
+
+        assertNotNull(eggService.registerEgg(1L, registerEggRequest));
+    }
+
+    @Test
+    @DisplayName("registerEgg() should load the unpicked eggs of a farm only once and detect registered eggs as duplicates")
+    void registerEggShouldLoadUnpickedEggsOnlyOnce() {
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(new ArrayList<>());
+        when(eggRepository.save(any(Egg.class))).thenReturn(testEgg);
+
+        eggService.registerEgg(1L, registerEggRequest);
 
         assertThrows(DuplicateEggException.class, () -> {
             eggService.registerEgg(1L, registerEggRequest);
         });
+        verify(eggRepository, times(1)).findByFarmIdAndPicked(1L, false);
     }
 
+    @Test
+    @DisplayName("registerEgg() should detect duplicates with a bounding-box query in database mode")
+    void registerEggShouldThrowExceptionWhenEggIsDuplicateInDatabaseMode() {
+        ReflectionTestUtils.setField(eggService, "dedupMode", EggDedupMode.DATABASE);
+        testEgg.setCoordX(testEgg.getCoordX() + 0.01);
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPickedFalseAndBrokenAndCoordXBetweenAndCoordYBetween(
+                eq(1L), eq(false), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(testEgg));
+
+        assertThrows(DuplicateEggException.class, () -> {
+            eggService.registerEgg(1L, registerEggRequest);
+        });
+        verify(eggRepository, never()).findByFarmIdAndPicked(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("registerEgg() should ignore bounding-box candidates farther than the duplicate distance in database mode")
+    void registerEggShouldRegisterWhenCandidateIsOutsideDuplicateDistanceInDatabaseMode() {
+        ReflectionTestUtils.setField(eggService, "dedupMode", EggDedupMode.DATABASE);
+        // Inside the bounding box but beyond the threshold along the diagonal
+        Egg cornerEgg = testEgg.toBuilder().coordX(10.04).coordY(20.04).build();
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPickedFalseAndBrokenAndCoordXBetweenAndCoordYBetween(
+                eq(1L), eq(false), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(cornerEgg));
+        when(eggRepository.save(any(Egg.class))).thenReturn(testEgg);
+
+        assertNotNull(eggService.registerEgg(1L, registerEggRequest));
+    }
+
+    @Test
+    @DisplayName("registerEggs() should register new eggs and report duplicates within the batch and the farm")
+    void registerEggsShouldRegisterNewEggsAndReportDuplicates() {
+        RegisterEggRequest newEggRequest = new RegisterEggRequest(30.0, 20.0, false);
+        RegisterEggRequest batchDuplicateRequest = new RegisterEggRequest(30.001, 20.0, false);
+        Egg newEgg = testEgg.toBuilder().id(2L).coordX(30.0).build();
+        EggDto newEggDto = new EggDto(2L, 1L, 30.0, 20.0, false, false, newEgg.getTimestamp());
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(List.of(testEgg));
+        when(eggRepository.saveAll(anyList())).thenReturn(List.of(newEgg));
+
+        List<EggBatchResultDto> results = eggService.registerEggs(1L,
+                List.of(registerEggRequest, newEggRequest, batchDuplicateRequest));
+
+        assertEquals(3, results.size());
+        assertEquals(EggRegistrationStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(EggRegistrationStatus.CREATED, results.get(1).getStatus());
+        assertEquals(newEggDto, results.get(1).getEgg());
+        assertEquals(EggRegistrationStatus.DUPLICATE, results.get(2).getStatus());
+        assertNull(results.get(2).getEgg());
+        verify(farmDailyEggStatsRepository).addDetected(1L, newEgg.getTimestamp().toLocalDate(), 1L);
+    }
+
+    @Test
+    @DisplayName("registerEggs() should not write anything when every egg is a duplicate")
+    void registerEggsShouldNotSaveWhenAllEggsAreDuplicates() {
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(List.of(testEgg));
+
+        List<EggBatchResultDto> results = eggService.registerEggs(1L, List.of(registerEggRequest));
+
+        assertEquals(EggRegistrationStatus.DUPLICATE, results.getFirst().getStatus());
+        verify(eggRepository, never()).saveAll(anyList());
+        verifyNoInteractions(farmDailyEggStatsRepository);
+    }
+
+    @Test
+    @DisplayName("pickEggs() should match each position to the nearest unpicked egg not matched yet")
+    void pickEggsShouldMatchNearestEggsOnce() {
+        Egg nearEgg = testEgg.toBuilder().id(2L).coordX(10.03).build();
+        List<EggPositionRequest> positions = List.of(
+                new EggPositionRequest(10.02, 20.0),
+                new EggPositionRequest(10.02, 20.0),
+                new EggPositionRequest(50.0, 50.0)
+        );
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(List.of(testEgg, nearEgg));
+        when(eggRepository.markPickedByIds(eq(Set.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(pickedEgg(1L, 60L), pickedEgg(2L, 30L)));
+
+        List<EggPickResultDto> results = eggService.pickEggs(1L, positions);
+
+        assertEquals(new EggPickResultDto(0, EggPickStatus.PICKED, 2L), results.get(0));
+        assertEquals(new EggPickResultDto(1, EggPickStatus.PICKED, 1L), results.get(1));
+        assertEquals(new EggPickResultDto(2, EggPickStatus.NOT_FOUND, null), results.get(2));
+        verify(pickLatencyTracker).record(1L, List.of(60L, 30L));
+        assertTrue(eggSpatialIndex.findNearest(1L, 10.0, 20.0, Set.of(), List::of).isEmpty());
+    }
+
+    @Test
+    @DisplayName("pickEggs() should report an egg picked concurrently in the meantime as not found")
+    void pickEggsShouldReportEggsNotUpdatedAsNotFound() {
+        Egg farEgg = testEgg.toBuilder().id(2L).coordX(30.0).build();
+        List<EggPositionRequest> positions = List.of(
+                new EggPositionRequest(10.0, 20.0),
+                new EggPositionRequest(30.0, 20.0)
+        );
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(List.of(testEgg, farEgg));
+        // Egg 1 was picked by another request between the match and the update
+        when(eggRepository.markPickedByIds(eq(Set.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(pickedEgg(2L, 30L)));
+
+        List<EggPickResultDto> results = eggService.pickEggs(1L, positions);
+
+        assertEquals(new EggPickResultDto(0, EggPickStatus.NOT_FOUND, null), results.get(0));
+        assertEquals(new EggPickResultDto(1, EggPickStatus.PICKED, 2L), results.get(1));
+        verify(pickLatencyTracker).record(1L, List.of(30L));
+        assertTrue(eggSpatialIndex.findNearest(1L, 10.0, 20.0, Set.of(), List::of).isEmpty());
+    }
+
+    @Test
+    @DisplayName("pickEggs() should match the nearest egg of the bounding box in database mode")
+    void pickEggsShouldMatchNearestEggInDatabaseMode() {
+        ReflectionTestUtils.setField(eggService, "dedupMode", EggDedupMode.DATABASE);
+        Egg fartherEgg = testEgg.toBuilder().id(2L).coordX(10.04).build();
+
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPickedFalseAndCoordXBetweenAndCoordYBetween(
+                eq(1L), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(fartherEgg, testEgg));
+        when(eggRepository.markPickedByIds(eq(Set.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(pickedEgg(1L, 60L)));
+
+        List<EggPickResultDto> results = eggService.pickEggs(1L, List.of(new EggPositionRequest(10.01, 20.0)));
+
+        assertEquals(new EggPickResultDto(0, EggPickStatus.PICKED, 1L), results.getFirst());
+    }
+
+    @Test
+    @DisplayName("pickEggs() should not update anything when no egg is close enough")
+    void pickEggsShouldNotUpdateWhenNoEggMatches() {
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(List.of(testEgg));
+
+        List<EggPickResultDto> results = eggService.pickEggs(1L, List.of(new EggPositionRequest(10.06, 20.0)));
+
+        assertEquals(EggPickStatus.NOT_FOUND, results.getFirst().getStatus());
+        verify(eggRepository, never()).markPickedByIds(anyCollection(), any());
+    }
 
     @Test
     @DisplayName("getEggsByFarm() should get eggs by farm when only farm id is provided")
@@ -171,8 +415,7 @@ public class EggServiceTest {
         List<EggDto> expectedDtos = List.of(eggDto);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmId(1L)).thenReturn(eggs);
-        when(modelMapper.map(testEgg, EggDto.class)).thenReturn(eggDto);
+        when(eggRepository.findDtosByFarm(1L, null, null, null)).thenReturn(projectionOf(eggs));
 
         List<EggDto> result = eggService.getEggsByFarm(1L, null, null);
 
@@ -188,8 +431,7 @@ public class EggServiceTest {
         List<EggDto> expectedDtos = List.of(eggDto);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(eggs);
-        when(modelMapper.map(testEgg, EggDto.class)).thenReturn(eggDto);
+        when(eggRepository.findDtosByFarm(1L, false, null, null)).thenReturn(projectionOf(eggs));
 
         List<EggDto> result = eggService.getEggsByFarm(1L, false, null);
 
@@ -208,8 +450,7 @@ public class EggServiceTest {
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndTimestampBetween(1L, startOfDay, endOfDay)).thenReturn(eggs);
-        when(modelMapper.map(testEgg, EggDto.class)).thenReturn(eggDto);
+        when(eggRepository.findDtosByFarm(1L, null, startOfDay, endOfDay)).thenReturn(projectionOf(eggs));
 
         List<EggDto> result = eggService.getEggsByFarm(1L, null, date);
 
@@ -228,8 +469,7 @@ public class EggServiceTest {
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPickedAndTimestampBetween(1L, false, startOfDay, endOfDay)).thenReturn(eggs);
-        when(modelMapper.map(testEgg, EggDto.class)).thenReturn(eggDto);
+        when(eggRepository.findDtosByFarm(1L, false, startOfDay, endOfDay)).thenReturn(projectionOf(eggs));
 
         List<EggDto> result = eggService.getEggsByFarm(1L, false, date);
 
@@ -248,35 +488,117 @@ public class EggServiceTest {
         });
     }
 
+    @Test
+    @DisplayName("getEggsPageByFarm() should return a cursor to the next page when more eggs are available")
+    void getEggsPageByFarmShouldReturnNextCursorWhenMoreEggsAvailable() {
+        EggDto olderEggDto = new EggDto(2L, 1L, 30.0, 20.0, false, false, eggDto.getTimestamp().minusMinutes(1));
+
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(eggRepository.findPageByFarm(1L, false, null, null, Limit.of(2)))
+                .thenReturn(List.of(eggDto, olderEggDto));
+
+        EggPageDto page = eggService.getEggsPageByFarm(1L, false, null, null, 1);
+
+        assertEquals(List.of(eggDto), page.getEggs());
+        assertEquals(EggCursor.of(eggDto), EggCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("getEggsPageByFarm() should continue after the cursor and return no cursor on the last page")
+    void getEggsPageByFarmShouldContinueAfterCursor() {
+        LocalDate date = LocalDate.now();
+        String cursor = EggCursor.of(eggDto).encode();
+
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(eggRepository.findPageByFarmAfter(1L, null, date.atStartOfDay(), date.atTime(LocalTime.MAX),
+                eggDto.getTimestamp(), eggDto.getId(), Limit.of(11)))
+                .thenReturn(List.of());
+
+        EggPageDto page = eggService.getEggsPageByFarm(1L, null, date, cursor, 10);
+
+        assertTrue(page.getEggs().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("getEggsPageByFarm() should throw IllegalStateException when the cursor is invalid")
+    void getEggsPageByFarmShouldThrowExceptionWhenCursorIsInvalid() {
+        when(farmRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> {
+            eggService.getEggsPageByFarm(1L, null, null, "not-a-cursor", 10);
+        });
+        verifyNoInteractions(eggRepository);
+    }
+
+    @Test
+    @DisplayName("streamEggsByFarm() should hand every streamed egg to the consumer")
+    void streamEggsByFarmShouldHandEveryEggToConsumer() {
+        List<EggDto> consumed = new ArrayList<>();
+
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(eggRepository.streamByFarm(1L, null, null, null)).thenReturn(Stream.of(eggDto, eggDto));
+
+        eggService.streamEggsByFarm(1L, null, null, consumed::add);
+
+        assertEquals(List.of(eggDto, eggDto), consumed);
+    }
+
+    @Test
+    @DisplayName("streamEggsByFarm() should throw EntityNotFoundException when farm is not found")
+    void streamEggsByFarmShouldThrowExceptionWhenFarmNotFound() {
+        when(farmRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> {
+            eggService.streamEggsByFarm(1L, null, null, egg -> {});
+        });
+        verifyNoInteractions(eggRepository);
+    }
+
     @Test
     @DisplayName("markEggsAsPicked() should mark eggs as picked successfully when request provided")
     void markEggsAsPickedShouldMarkEggsAsPickedSuccessfullyWhenRequestProvided() {
-        List<Egg> eggsToPick = new ArrayList<>();
-        eggsToPick.add(testEgg);
         LocalDateTime beforeTime = LocalDateTime.now();
         PickEggsRequest request = new PickEggsRequest();
         request.setBefore(beforeTime);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(eggsToPick);
+        List<PickLatencyBucketCount> pickLatencyBuckets = List.of(bucketCount(50, 2L), bucketCount(90, 1L));
+        when(eggRepository.markPickedBefore(eq(1L), eq(beforeTime), any(LocalDateTime.class))).thenReturn(pickLatencyBuckets);
         
-        eggService.markEggsAsPicked(1L, request);
+        PickEggsResultDto result = eggService.markEggsAsPicked(1L, request);
 
-        assertTrue(testEgg.getPicked());
+        assertEquals(3L, result.getPickedEggs());
+        verify(eggSpatialIndex).evict(1L);
+        verify(pickLatencyTracker).recordBuckets(1L, pickLatencyBuckets);
     }
 
     @Test
     @DisplayName("markEggsAsPicked() should mark eggs as picked using current time when request not provided")
     void markEggsAsPickedShouldMarkEggsSuccessfullyWhenRequestNotProvided() {
-        List<Egg> eggsToPick = new ArrayList<>();
-        eggsToPick.add(testEgg);
-        
+        LocalDateTime requestTime = LocalDateTime.now();
+        ArgumentCaptor<LocalDateTime> beforeCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPicked(1L, false)).thenReturn(eggsToPick);
+        when(eggRepository.markPickedBefore(eq(1L), beforeCaptor.capture(), any(LocalDateTime.class))).thenReturn(List.of(bucketCount(50, 1L)));
         
-        eggService.markEggsAsPicked(1L, null);
+        PickEggsResultDto result = eggService.markEggsAsPicked(1L, null);
 
-        assertTrue(testEgg.getPicked());
+        assertEquals(1L, result.getPickedEggs());
+        assertFalse(beforeCaptor.getValue().isBefore(requestTime));
+    }
+
+    @Test
+    @DisplayName("markEggsAsPicked() should keep the spatial index when no egg was picked")
+    void markEggsAsPickedShouldKeepSpatialIndexWhenNothingPicked() {
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(eggRepository.markPickedBefore(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+
+        PickEggsResultDto result = eggService.markEggsAsPicked(1L, new PickEggsRequest());
+
+        assertEquals(0L, result.getPickedEggs());
+        verify(eggSpatialIndex, never()).evict(anyLong());
+        verifyNoInteractions(pickLatencyTracker);
     }
 
     @Test
@@ -288,4 +610,40 @@ public class EggServiceTest {
             eggService.markEggsAsPicked(99L, new PickEggsRequest());
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Rows the DTO projection queries return for the given eggs, built with the entity mapping used before
+     * the projections so both are checked to produce the same output
+     */
+    private static List<EggDto> projectionOf(List<Egg> eggs) {
+        return eggs.stream().map(EggMapper::toDto).toList();
+    }
+
+    private static PickedEgg pickedEgg(Long id, Long latency) {
+        return new PickedEgg() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getLatency() {
+                return latency;
+            }
+        };
+    }
+
+    private static PickLatencyBucketCount bucketCount(Integer bucket, Long count) {
+        return new PickLatencyBucketCount() {
+            @Override
+            public Integer getBucket() {
+                return bucket;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.egguard.egguardbackend.egg;
+
+import com.egguard.egguardbackend.egg.dedup.ScalarEggDedupKernel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EggSpatialIndexTest {
+
+    private final EggSpatialIndex eggSpatialIndex =
+            new EggSpatialIndex(EggService.DUPLICATE_DISTANCE_THRESHOLD, new ScalarEggDedupKernel());
+
+    @Test
+    @DisplayName("containsDuplicate() should keep the eggs added and removed while the farm grid is loading")
+    void containsDuplicateShouldKeepChangesMadeWhileLoading() {
+        Egg loadedEgg = egg(1L, 1.0, 1.0);
+        Egg pickedEgg = egg(2L, 2.0, 2.0);
+        Egg committedEgg = egg(3L, 3.0, 3.0);
+
+        // The query snapshot predates the egg committed and the egg picked during the load
+        boolean duplicate = eggSpatialIndex.containsDuplicate(1L, 5.0, 5.0, false, () -> {
+            eggSpatialIndex.add(1L, committedEgg);
+            eggSpatialIndex.removeAll(1L, List.of(pickedEgg));
+            return List.of(loadedEgg, pickedEgg);
+        });
+
+        assertFalse(duplicate);
+        assertTrue(eggSpatialIndex.containsDuplicate(1L, 1.0, 1.0, false, List::of));
+        assertTrue(eggSpatialIndex.containsDuplicate(1L, 3.0, 3.0, false, List::of));
+        assertFalse(eggSpatialIndex.containsDuplicate(1L, 2.0, 2.0, false, List::of));
+    }
+
+    @Test
+    @DisplayName("findNearest() should load the farm grid again after a failed load")
+    void findNearestShouldReloadAfterFailedLoad() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> eggSpatialIndex.findNearest(1L, 1.0, 1.0, Set.of(), () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("Connection lost");
+        }));
+        Egg nearest = eggSpatialIndex.findNearest(1L, 1.0, 1.0, Set.of(), () -> {
+            loads.incrementAndGet();
+            return List.of(egg(1L, 1.01, 1.0));
+        }).orElseThrow();
+
+        assertEquals(1L, nearest.getId());
+        assertEquals(2, loads.get());
+    }
+
+    private static Egg egg(Long id, double coordX, double coordY) {
+        return Egg.builder()
+                .id(id)
+                .coordX(coordX)
+                .coordY(coordY)
+                .broken(false)
+                .picked(false)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.egguard.egguardbackend.egg.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EggDedupKernelTest {
+
+    private static final double SQUARED_THRESHOLD = 0.05 * 0.05;
+
+    // More eggs than any vector lane count, so both the vector loop and its scalar tail are exercised
+    private static final int SIZE = 37;
+
+    // The selected kernel is the Vector API one when the tests run with the vector profile
+    private final List<EggDedupKernel> kernels = List.of(new ScalarEggDedupKernel(), EggDedupKernels.select());
+
+    @Test
+    @DisplayName("containsDuplicate() should find an egg within the threshold at any position in the arrays")
+    void containsDuplicateShouldFindCloseEggAtAnyIndex() {
+        for (EggDedupKernel kernel : kernels) {
+            for (int duplicateIndex = 0; duplicateIndex < SIZE; duplicateIndex++) {
+                double[] coordsX = distantCoords();
+                double[] coordsY = distantCoords();
+                boolean[] broken = new boolean[SIZE + 3];
+                coordsX[duplicateIndex] = 10.03;
+                coordsY[duplicateIndex] = 20.03;
+
+                assertTrue(kernel.containsDuplicate(coordsX, coordsY, broken, SIZE, 10.0, 20.0, false, SQUARED_THRESHOLD),
+                        kernel.getClass().getSimpleName() + " missed the egg at index " + duplicateIndex);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("containsDuplicate() should ignore close eggs with a different broken state or beyond the size")
+    void containsDuplicateShouldIgnoreOtherBrokenStateAndUnusedSlots() {
+        for (EggDedupKernel kernel : kernels) {
+            double[] coordsX = distantCoords();
+            double[] coordsY = distantCoords();
+            boolean[] broken = new boolean[SIZE + 3];
+            coordsX[5] = 10.0;
+            coordsY[5] = 20.0;
+            broken[5] = true;
+            // Past the used size, as left behind by a removed egg
+            coordsX[SIZE + 1] = 10.0;
+            coordsY[SIZE + 1] = 20.0;
+
+            assertFalse(kernel.containsDuplicate(coordsX, coordsY, broken, SIZE, 10.0, 20.0, false, SQUARED_THRESHOLD),
+                    kernel.getClass().getSimpleName());
+            assertTrue(kernel.containsDuplicate(coordsX, coordsY, broken, SIZE, 10.0, 20.0, true, SQUARED_THRESHOLD),
+                    kernel.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    @DisplayName("containsDuplicate() should compare the threshold against the diagonal distance")
+    void containsDuplicateShouldUseEuclideanDistance() {
+        for (EggDedupKernel kernel : kernels) {
+            double[] coordsX = distantCoords();
+            double[] coordsY = distantCoords();
+            boolean[] broken = new boolean[SIZE + 3];
+            coordsX[0] = 10.04;
+            coordsY[0] = 20.04;
+
+            assertFalse(kernel.containsDuplicate(coordsX, coordsY, broken, SIZE, 10.0, 20.0, false, SQUARED_THRESHOLD),
+                    kernel.getClass().getSimpleName());
+        }
+    }
+
+    private static double[] distantCoords() {
+        double[] coords = new double[SIZE + 3];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = 100.0 + i;
+        }
+        return coords;
+    }
+}
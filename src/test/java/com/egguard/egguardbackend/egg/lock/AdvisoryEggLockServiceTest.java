@@ -0,0 +1,34 @@
+package com.egguard.egguardbackend.egg.lock;
+
+import com.egguard.egguardbackend.egg.EggRepository;
+import com.egguard.egguardbackend.shared.enums.EggDedupMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdvisoryEggLockServiceTest {
+
+    @Mock
+    private EggRepository eggRepository;
+
+    @Test
+    @DisplayName("the advisory lock service should refuse to start with the in-memory duplicate check")
+    void constructorShouldRejectMemoryDedupMode() {
+        InvalidConfigurationPropertyValueException exception = assertThrows(InvalidConfigurationPropertyValueException.class,
+                () -> new AdvisoryEggLockService(eggRepository, EggDedupMode.MEMORY));
+
+        assertEquals("eggs.lock-mode", exception.getName());
+    }
+
+    @Test
+    @DisplayName("the advisory lock service should start with the database duplicate check")
+    void constructorShouldAcceptDatabaseDedupMode() {
+        assertDoesNotThrow(() -> new AdvisoryEggLockService(eggRepository, EggDedupMode.DATABASE));
+    }
+}
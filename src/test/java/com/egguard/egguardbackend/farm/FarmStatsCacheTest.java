@@ -0,0 +1,113 @@
+package com.egguard.egguardbackend.farm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FarmStatsCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 4, 20);
+
+    private SimpleMeterRegistry meterRegistry;
+    private FarmStatsCache farmStatsCache;
+    private List<LocalDate[]> loadedRanges;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        farmStatsCache = new FarmStatsCache(meterRegistry, 1000, clock);
+        loadedRanges = new ArrayList<>();
+    }
+
+    /**
+     * Loads one detected egg per day of the range, recording every loaded range
+     */
+    private List<DailyEggCounts> load(LocalDate from, LocalDate to) {
+        loadedRanges.add(new LocalDate[]{from, to});
+        return from.datesUntil(to.plusDays(1))
+                .map(day -> new DailyEggCounts(day, 1L, 0L, 0L))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("sum() should load missing closed days once and serve them from the cache afterwards")
+    void sumShouldLoadClosedDaysOnce() {
+        LocalDate from = TODAY.minusDays(7);
+        LocalDate to = TODAY.minusDays(1);
+
+        EggCounts first = farmStatsCache.sum(1L, from, to, this::load);
+        EggCounts second = farmStatsCache.sum(1L, from, to, this::load);
+
+        assertEquals(7L, first.detected());
+        assertEquals(first, second);
+        assertEquals(1, loadedRanges.size());
+        assertArrayEquals(new LocalDate[]{from, to}, loadedRanges.getFirst());
+        assertEquals(7.0, meterRegistry.get("cache.gets").tag("cache", "farm-stats").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("farm.stats.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("sum() should recompute today on every call and only load the closed days missing from the cache")
+    void sumShouldRecomputeTodayEveryTime() {
+        farmStatsCache.sum(1L, TODAY.minusDays(3), TODAY.minusDays(1), this::load);
+        loadedRanges.clear();
+
+        EggCounts counts = farmStatsCache.sum(1L, TODAY.minusDays(5), TODAY, this::load);
+        farmStatsCache.sum(1L, TODAY.minusDays(5), TODAY, this::load);
+
+        assertEquals(6L, counts.detected());
+        assertEquals(3, loadedRanges.size());
+        assertArrayEquals(new LocalDate[]{TODAY.minusDays(5), TODAY.minusDays(4)}, loadedRanges.get(0));
+        assertArrayEquals(new LocalDate[]{TODAY, TODAY}, loadedRanges.get(1));
+        assertArrayEquals(new LocalDate[]{TODAY, TODAY}, loadedRanges.get(2));
+    }
+
+    @Test
+    @DisplayName("invalidateUntil() should drop the cached days of the farm up to the given day only")
+    void invalidateUntilShouldDropFarmDaysUpToDay() {
+        LocalDate from = TODAY.minusDays(4);
+        LocalDate to = TODAY.minusDays(1);
+        farmStatsCache.sum(1L, from, to, this::load);
+        farmStatsCache.sum(2L, from, to, this::load);
+        loadedRanges.clear();
+
+        farmStatsCache.invalidateUntil(1L, TODAY.minusDays(3));
+        farmStatsCache.sum(1L, from, to, this::load);
+        farmStatsCache.sum(2L, from, to, this::load);
+
+        assertEquals(1, loadedRanges.size());
+        assertArrayEquals(new LocalDate[]{from, TODAY.minusDays(3)}, loadedRanges.getFirst());
+    }
+
+    @Test
+    @DisplayName("sum() should not cache closed days loaded while a late write invalidated the farm")
+    void sumShouldNotCacheDaysInvalidatedDuringLoad() {
+        LocalDate from = TODAY.minusDays(3);
+        LocalDate to = TODAY.minusDays(1);
+
+        // The late write commits and invalidates its day while the old counters are being read
+        EggCounts stale = farmStatsCache.sum(1L, from, to, (start, end) -> {
+            List<DailyEggCounts> counts = load(start, end);
+            farmStatsCache.invalidate(1L, TODAY.minusDays(2));
+            return counts;
+        });
+        loadedRanges.clear();
+        farmStatsCache.sum(1L, from, to, this::load);
+        farmStatsCache.sum(1L, from, to, this::load);
+
+        assertEquals(3L, stale.detected());
+        assertEquals(1, loadedRanges.size());
+        assertArrayEquals(new LocalDate[]{from, to}, loadedRanges.getFirst());
+    }
+}
@@ -2,6 +2,9 @@ package com.egguard.egguardbackend.farm;
 
 import com.egguard.egguardbackend.egg.Egg;
 import com.egguard.egguardbackend.egg.EggRepository;
+import com.egguard.egguardbackend.egg.EggSeriesBucket;
+import com.egguard.egguardbackend.shared.enums.StatsGranularity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,10 +12,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,12 +29,21 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class FarmStatsServiceTest {
 
+    @Mock
+    private FarmDailyEggStatsRepository farmDailyEggStatsRepository;
+
     @Mock
     private EggRepository eggRepository;
 
     @Mock
     private FarmRepository farmRepository;
 
+    @Mock
+    private PickLatencyTracker pickLatencyTracker;
+
+    @Spy
+    private FarmStatsCache farmStatsCache = new FarmStatsCache(new SimpleMeterRegistry(), 1000);
+
     @InjectMocks
     private FarmStatsService farmStatsService;
 
@@ -76,12 +94,20 @@ public class FarmStatsServiceTest {
         );
     }
 
+    private List<DailyEggCounts> dailyCountsOf(List<Egg> pickedEggs) {
+        Map<LocalDate, List<Egg>> eggsByDay = pickedEggs.stream()
+                .collect(Collectors.groupingBy(egg -> egg.getTimestamp().toLocalDate()));
+        return eggsByDay.entrySet().stream()
+                .map(day -> new DailyEggCounts(day.getKey(), (long) day.getValue().size(), (long) day.getValue().size(),
+                        day.getValue().stream().filter(Egg::getBroken).count()))
+                .toList();
+    }
+
     @Test
     @DisplayName("getFarmStats() should get correct statistics")
     void getFarmStatsShouldGetStatsSuccessfully() {
-        when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPickedAndTimestampBetween(1L, true, fromDateTime, toDateTime))
-                .thenReturn(createPickedEggsWithVaryingDays());
+        when(farmDailyEggStatsRepository.findDailyByFarm(1L, from, to))
+                .thenReturn(dailyCountsOf(createPickedEggsWithVaryingDays()));
         FarmStatsDto result = farmStatsService.getFarmStats(1L, from, to);
 
         assertNotNull(result);
@@ -91,14 +117,29 @@ public class FarmStatsServiceTest {
 
         double delta = 0.1;
         assertEquals(33.3, result.getBrokenEggsPercentage(), delta);
+        assertNull(result.getPickLatencyP50Seconds());
+    }
+
+    @Test
+    @DisplayName("getFarmStats() should include the pick latency percentiles of the farm")
+    void getFarmStatsShouldIncludePickLatencyPercentiles() {
+        when(farmDailyEggStatsRepository.findDailyByFarm(1L, from, to))
+                .thenReturn(dailyCountsOf(createPickedEggsWithVaryingDays()));
+        when(pickLatencyTracker.getPercentiles(1L)).thenReturn(Optional.of(new PickLatencyPercentiles(600L, 3600L, 7200L)));
+
+        FarmStatsDto result = farmStatsService.getFarmStats(1L, from, to);
+
+        assertEquals(600L, result.getPickLatencyP50Seconds());
+        assertEquals(3600L, result.getPickLatencyP90Seconds());
+        assertEquals(7200L, result.getPickLatencyP99Seconds());
     }
 
     @Test
     @DisplayName("getFarmStats() should get correct statistics when there were no eggs")
     void getFarmStatsShouldGetStatsSuccessfullyWhenNoEggs() {
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPickedAndTimestampBetween(1L, true, fromDateTime, toDateTime))
-                .thenReturn(List.of());
+        when(farmDailyEggStatsRepository.findDailyByFarm(1L, from, to))
+                .thenReturn(dailyCountsOf(List.of()));
         FarmStatsDto result = farmStatsService.getFarmStats(1L, from, to);
 
         assertNotNull(result);
@@ -116,9 +157,8 @@ public class FarmStatsServiceTest {
         to = from;
         toDateTime = from.atTime(23, 59, 59);
 
-        when(farmRepository.existsById(1L)).thenReturn(true);
-        when(eggRepository.findByFarmIdAndPickedAndTimestampBetween(1L, true, fromDateTime, toDateTime))
-                .thenReturn(createPickedEggsSameDay());
+        when(farmDailyEggStatsRepository.findDailyByFarm(1L, from, to))
+                .thenReturn(dailyCountsOf(createPickedEggsSameDay()));
         FarmStatsDto result = farmStatsService.getFarmStats(1L, from, to);
 
         assertNotNull(result);
@@ -142,10 +182,107 @@ public class FarmStatsServiceTest {
     @Test
     @DisplayName("getFarmStats() should throw EntityNotFoundException when farm is not found")
     void getFarmStatsShouldThrowExceptionWhenFarmNotFound() {
+        when(farmDailyEggStatsRepository.findDailyByFarm(99L, from, to)).thenReturn(dailyCountsOf(List.of()));
         when(farmRepository.existsById(99L)).thenReturn(false);
 
         assertThrows(EntityNotFoundException.class, () -> {
             farmStatsService.getFarmStats(99L, from, to);
         });
     }
+
+    @Test
+    @DisplayName("getFarmStats() should run a single aggregate query and load no egg when the rollup is disabled")
+    void getFarmStatsShouldRunSingleAggregateQueryWithoutRollup() {
+        ReflectionTestUtils.setField(farmStatsService, "useRollup", false);
+
+        when(eggRepository.countDailyByFarmAndTimestampBetween(1L, fromDateTime, to.atTime(LocalTime.MAX)))
+                .thenReturn(dailyCountsOf(createPickedEggsWithVaryingDays()));
+        FarmStatsDto result = farmStatsService.getFarmStats(1L, from, to);
+
+        assertEquals(6L, result.getTotalPickedEggs());
+        assertEquals(2L, result.getAverageNotBrokenEggsPickedPerDay());
+        assertEquals(1L, result.getAverageBrokenEggsPickedPerDay());
+        // The aggregate is the only statement of the request, no finder returning eggs is called
+        verify(eggRepository, times(1)).countDailyByFarmAndTimestampBetween(1L, fromDateTime, to.atTime(LocalTime.MAX));
+        verifyNoMoreInteractions(eggRepository);
+        verifyNoInteractions(farmRepository, farmDailyEggStatsRepository);
+    }
+
+    @Test
+    @DisplayName("getFarmStats() should answer repeated requests on past days from the cache")
+    void getFarmStatsShouldAnswerPastDaysFromCache() {
+        when(farmDailyEggStatsRepository.findDailyByFarm(1L, from, to))
+                .thenReturn(dailyCountsOf(createPickedEggsWithVaryingDays()));
+
+        FarmStatsDto first = farmStatsService.getFarmStats(1L, from, to);
+        FarmStatsDto second = farmStatsService.getFarmStats(1L, from, to);
+
+        assertEquals(first, second);
+        verify(farmDailyEggStatsRepository, times(1)).findDailyByFarm(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("getFarmStats() should only check the farm exists when the aggregate finds no egg")
+    void getFarmStatsShouldCheckFarmExistsWhenAggregateIsEmpty() {
+        ReflectionTestUtils.setField(farmStatsService, "useRollup", false);
+
+        when(eggRepository.countDailyByFarmAndTimestampBetween(1L, fromDateTime, to.atTime(LocalTime.MAX)))
+                .thenReturn(dailyCountsOf(List.of()));
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        FarmStatsDto result = farmStatsService.getFarmStats(1L, from, to);
+
+        assertEquals(0L, result.getTotalPickedEggs());
+        verifyNoMoreInteractions(eggRepository);
+    }
+
+    private EggSeriesBucket bucketOf(LocalDateTime start, long detected, long picked, long broken) {
+        return new EggSeriesBucket() {
+            public Long getBucket() { return start.toEpochSecond(ZoneOffset.UTC); }
+            public Long getDetected() { return detected; }
+            public Long getPicked() { return picked; }
+            public Long getBroken() { return broken; }
+        };
+    }
+
+    @Test
+    @DisplayName("getFarmStatsSeries() should return dense hourly arrays filled from the grouped buckets")
+    void getFarmStatsSeriesShouldReturnDenseArrays() {
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(eggRepository.countSeriesByFarm(1L, "hour", fromDateTime, to.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(bucketOf(fromDateTime.plusHours(1), 3, 2, 1),
+                        bucketOf(fromDateTime.plusHours(47), 1, 0, 0)));
+
+        FarmStatsSeriesDto result = farmStatsService.getFarmStatsSeries(1L, from, to, StatsGranularity.HOUR);
+
+        assertEquals(fromDateTime, result.getStart());
+        assertEquals(48, result.getDetected().length);
+        assertEquals(3L, result.getDetected()[1]);
+        assertEquals(2L, result.getPicked()[1]);
+        assertEquals(1L, result.getBroken()[1]);
+        assertEquals(1L, result.getDetected()[47]);
+        assertEquals(0L, result.getDetected()[0]);
+    }
+
+    @Test
+    @DisplayName("getFarmStatsSeries() should align weekly buckets on Monday")
+    void getFarmStatsSeriesShouldAlignWeeksOnMonday() {
+        // 2025-04-17 is a Thursday
+        LocalDateTime monday = LocalDate.of(2025, 4, 14).atStartOfDay();
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(eggRepository.countSeriesByFarm(1L, "week", monday, to.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(bucketOf(monday, 5, 4, 1)));
+
+        FarmStatsSeriesDto result = farmStatsService.getFarmStatsSeries(1L, from, to, StatsGranularity.WEEK);
+
+        assertEquals(monday, result.getStart());
+        assertArrayEquals(new long[]{5L}, result.getDetected());
+    }
+
+    @Test
+    @DisplayName("getFarmStatsSeries() should reject ranges with too many buckets before querying")
+    void getFarmStatsSeriesShouldRejectTooManyBuckets() {
+        assertThrows(IllegalStateException.class,
+                () -> farmStatsService.getFarmStatsSeries(1L, from, from.plusYears(2), StatsGranularity.HOUR));
+        verifyNoInteractions(eggRepository, farmRepository);
+    }
 }
@@ -0,0 +1,142 @@
+package com.egguard.egguardbackend.farm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PickLatencyTrackerTest {
+
+    @Mock
+    private FarmPickLatencyBucketRepository farmPickLatencyBucketRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PickLatencyTracker pickLatencyTracker;
+
+    @BeforeEach
+    void setUp() {
+        pickLatencyTracker = new PickLatencyTracker(farmPickLatencyBucketRepository, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @DisplayName("bucketOf() should keep every value within 12.5% of the highest value of its bucket")
+    void bucketOfShouldBoundRelativeError() {
+        for (long seconds : new long[]{0, 7, 8, 15, 16, 100, 3_600, 86_400, 1_000_000, PickLatencyHistogram.MAX_VALUE}) {
+            long highest = PickLatencyHistogram.highestValueOf(PickLatencyHistogram.bucketOf(seconds));
+            assertTrue(highest >= seconds);
+            assertTrue(highest - seconds <= seconds / 8, "Value " + seconds + " reported as " + highest);
+        }
+        assertEquals(PickLatencyHistogram.BUCKET_COUNT - 1, PickLatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("getPercentiles() should compute the percentiles from the recorded latencies")
+    void getPercentilesShouldComputePercentiles() {
+        when(farmPickLatencyBucketRepository.findByIdFarmId(1L)).thenReturn(List.of());
+
+        // One to a hundred minutes
+        pickLatencyTracker.record(1L, LongStream.rangeClosed(1, 100).map(minutes -> minutes * 60).boxed().toList());
+        PickLatencyPercentiles percentiles = pickLatencyTracker.getPercentiles(1L).orElseThrow();
+
+        assertEquals(3000, percentiles.p50(), 3000 / 8.0);
+        assertEquals(5400, percentiles.p90(), 5400 / 8.0);
+        assertEquals(5940, percentiles.p99(), 5940 / 8.0);
+    }
+
+    @Test
+    @DisplayName("recordBuckets() should count the latencies bucketed by the database like the recorded ones")
+    void recordBucketsShouldAddBucketCounts() {
+        when(farmPickLatencyBucketRepository.findByIdFarmId(1L)).thenReturn(List.of());
+        int bucket = PickLatencyHistogram.bucketOf(600);
+
+        pickLatencyTracker.recordBuckets(1L, List.of(new PickLatencyBucketCount() {
+            @Override
+            public Integer getBucket() {
+                return bucket;
+            }
+
+            @Override
+            public Long getCount() {
+                return 5L;
+            }
+        }));
+        pickLatencyTracker.record(1L, List.of(600L));
+        pickLatencyTracker.flush();
+
+        assertEquals(PickLatencyHistogram.highestValueOf(bucket), pickLatencyTracker.getPercentiles(1L).orElseThrow().p99());
+        verify(farmPickLatencyBucketRepository).addCount(1L, (short) bucket, 6L);
+    }
+
+    @Test
+    @DisplayName("getPercentiles() should start from the persisted histogram and be empty without picks")
+    void getPercentilesShouldLoadPersistedHistogram() {
+        short bucket = (short) PickLatencyHistogram.bucketOf(600);
+        when(farmPickLatencyBucketRepository.findByIdFarmId(1L))
+                .thenReturn(List.of(new FarmPickLatencyBucket(new FarmPickLatencyBucketId(1L, bucket), 10L)));
+        when(farmPickLatencyBucketRepository.findByIdFarmId(2L)).thenReturn(List.of());
+
+        assertEquals(PickLatencyHistogram.highestValueOf(bucket), pickLatencyTracker.getPercentiles(1L).orElseThrow().p50());
+        assertTrue(pickLatencyTracker.getPercentiles(2L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("getPercentiles() should load the histograms of the farms not seen yet with one query")
+    void getPercentilesShouldLoadMissingHistogramsAtOnce() {
+        short bucket = (short) PickLatencyHistogram.bucketOf(600);
+        when(farmPickLatencyBucketRepository.findByIdFarmId(1L)).thenReturn(List.of());
+        pickLatencyTracker.record(1L, List.of(60L));
+        when(farmPickLatencyBucketRepository.findByIdFarmIdIn(List.of(2L, 3L)))
+                .thenReturn(List.of(new FarmPickLatencyBucket(new FarmPickLatencyBucketId(2L, bucket), 10L)));
+
+        Map<Long, PickLatencyPercentiles> percentiles = pickLatencyTracker.getPercentiles(List.of(1L, 2L, 3L));
+
+        assertEquals(PickLatencyHistogram.highestValueOf(PickLatencyHistogram.bucketOf(60)), percentiles.get(1L).p50());
+        assertEquals(PickLatencyHistogram.highestValueOf(bucket), percentiles.get(2L).p50());
+        assertFalse(percentiles.containsKey(3L));
+        // Loaded histograms stay in memory
+        assertEquals(percentiles.get(2L), pickLatencyTracker.getPercentiles(2L).orElseThrow());
+        verify(farmPickLatencyBucketRepository).findByIdFarmIdIn(List.of(2L, 3L));
+    }
+
+    @Test
+    @DisplayName("flush() should add each recorded latency to the database once")
+    void flushShouldAddPendingCountsOnce() {
+        when(farmPickLatencyBucketRepository.findByIdFarmId(1L)).thenReturn(List.of());
+        pickLatencyTracker.record(1L, List.of(60L, 60L, 3600L));
+
+        pickLatencyTracker.flush();
+        pickLatencyTracker.flush();
+
+        verify(farmPickLatencyBucketRepository).addCount(1L, (short) PickLatencyHistogram.bucketOf(60), 2L);
+        verify(farmPickLatencyBucketRepository).addCount(1L, (short) PickLatencyHistogram.bucketOf(3600), 1L);
+        verifyNoMoreInteractions(farmPickLatencyBucketRepository);
+    }
+
+    @Test
+    @DisplayName("flush() should keep the counts to retry when the database update fails")
+    void flushShouldKeepCountsWhenUpdateFails() {
+        when(farmPickLatencyBucketRepository.findByIdFarmId(1L)).thenReturn(List.of());
+        doThrow(new IllegalStateException("Database down")).doNothing()
+                .when(farmPickLatencyBucketRepository).addCount(anyLong(), anyShort(), anyLong());
+        pickLatencyTracker.record(1L, List.of(60L));
+
+        pickLatencyTracker.flush();
+        pickLatencyTracker.flush();
+
+        verify(farmPickLatencyBucketRepository, times(2)).addCount(1L, (short) PickLatencyHistogram.bucketOf(60), 1L);
+    }
+}
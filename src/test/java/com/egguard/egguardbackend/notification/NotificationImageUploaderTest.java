@@ -0,0 +1,289 @@
+package com.egguard.egguardbackend.notification;
+
+import com.egguard.egguardbackend.notification.image.ImageHashCache;
+import com.egguard.egguardbackend.notification.image.NotificationImageProcessor;
+import com.egguard.egguardbackend.notification.image.ProcessedImage;
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
+import com.egguard.egguardbackend.shared.enums.NotificationSeverity;
+import com.egguard.egguardbackend.shared.service.IStaticContentUploadService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationImageUploaderTest {
+
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Mock
+    private IStaticContentUploadService staticContentUploadService;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationImageProcessor notificationImageProcessor;
+
+    @Mock
+    private ImageHashCache imageHashCache;
+
+    @Mock
+    private NotificationStreamHub notificationStreamHub;
+
+    private NotificationImageUploader notificationImageUploader;
+
+    private NotificationDto notification;
+
+    private Path image;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        notification = NotificationDto.builder()
+                .id(1L)
+                .farmId(2L)
+                .severity(NotificationSeverity.WARNING)
+                .message("Broken egg")
+                .imageStatus(NotificationImageStatus.PENDING)
+                .build();
+        image = Files.write(Files.createTempFile("notification-image-", ".img"), "test image content".getBytes());
+        notificationImageUploader = new NotificationImageUploader(staticContentUploadService, notificationRepository,
+                notificationImageProcessor, imageHashCache, notificationStreamHub, new SimpleMeterRegistry(),
+                3, Duration.ofMillis(1), 2, 1, Duration.ofMinutes(15), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        notificationImageUploader.shutdown();
+        Files.deleteIfExists(image);
+    }
+
+    @Test
+    @DisplayName("submit() should set the photo URL once the upload succeeds")
+    void submitShouldSetPhotoUrlOnSuccess() throws Exception {
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(image, null));
+        when(staticContentUploadService.uploadImage(image)).thenReturn("https://example.com/image.jpg");
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        verify(notificationRepository).updateImage(1L, "https://example.com/image.jpg", null, NotificationImageStatus.UPLOADED);
+        verify(imageHashCache).put(HASH, "https://example.com/image.jpg", null);
+        assertFalse(Files.exists(image));
+    }
+
+    @Test
+    @DisplayName("submit() should publish the notification again with its uploaded image")
+    void submitShouldPublishUpdatedNotification() throws Exception {
+        ArgumentCaptor<NotificationDto> updateCaptor = ArgumentCaptor.forClass(NotificationDto.class);
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(image, null));
+        when(staticContentUploadService.uploadImage(image)).thenReturn("https://example.com/image.jpg");
+        when(notificationRepository.updateImage(1L, "https://example.com/image.jpg", null, NotificationImageStatus.UPLOADED))
+                .thenReturn(1);
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        verify(notificationStreamHub).publishUpdate(eq(2L), updateCaptor.capture());
+        NotificationDto update = updateCaptor.getValue();
+        assertEquals(1L, update.getId());
+        assertEquals("Broken egg", update.getMessage());
+        assertEquals("https://example.com/image.jpg", update.getPhotoUrl());
+        assertEquals(NotificationImageStatus.UPLOADED, update.getImageStatus());
+        // The notification published when it was saved is left as it was
+        assertEquals(NotificationImageStatus.PENDING, notification.getImageStatus());
+    }
+
+    @Test
+    @DisplayName("submit() should retry failed uploads")
+    void submitShouldRetryFailedUploads() throws Exception {
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(image, null));
+        when(staticContentUploadService.uploadImage(image))
+                .thenThrow(new IOException("Upload failed"))
+                .thenReturn("https://example.com/image.jpg");
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        verify(staticContentUploadService, times(2)).uploadImage(image);
+        verify(notificationRepository).updateImage(1L, "https://example.com/image.jpg", null, NotificationImageStatus.UPLOADED);
+    }
+
+    @Test
+    @DisplayName("submit() should mark the image as failed once every attempt failed")
+    void submitShouldMarkImageFailedAfterLastAttempt() throws Exception {
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(image, null));
+        when(staticContentUploadService.uploadImage(image)).thenThrow(new IOException("Upload failed"));
+        when(notificationRepository.updateImage(1L, null, null, NotificationImageStatus.FAILED)).thenReturn(1);
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        verify(staticContentUploadService, times(3)).uploadImage(image);
+        verify(notificationRepository).updateImage(1L, null, null, NotificationImageStatus.FAILED);
+        verifyNoMoreInteractions(notificationRepository);
+        verify(notificationStreamHub).publishUpdate(eq(2L), argThat(update -> update.getImageStatus() == NotificationImageStatus.FAILED));
+        verifyNoInteractions(imageHashCache);
+        assertFalse(Files.exists(image));
+    }
+
+    @Test
+    @DisplayName("submit() should upload the processed image and its thumbnail, then delete every file")
+    void submitShouldUploadProcessedImageAndThumbnail() throws Exception {
+        Path processedImage = Files.createTempFile("processed-image-", ".jpg");
+        Path thumbnail = Files.createTempFile("thumbnail-", ".jpg");
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(processedImage, thumbnail));
+        when(staticContentUploadService.uploadImage(processedImage)).thenReturn("https://example.com/image.jpg");
+        when(staticContentUploadService.uploadImage(thumbnail))
+                .thenThrow(new IOException("Upload failed"))
+                .thenReturn("https://example.com/thumbnail.jpg");
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        // The image uploaded by the first attempt is not uploaded again
+        verify(staticContentUploadService, times(1)).uploadImage(processedImage);
+        verify(notificationRepository).updateImage(1L, "https://example.com/image.jpg",
+                "https://example.com/thumbnail.jpg", NotificationImageStatus.UPLOADED);
+        assertFalse(Files.exists(image));
+        assertFalse(Files.exists(processedImage));
+        assertFalse(Files.exists(thumbnail));
+    }
+
+    @Test
+    @DisplayName("shutdown() should let a running upload end")
+    void shutdownShouldWaitForRunningUploads() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(image, null));
+        when(staticContentUploadService.uploadImage(image)).thenAnswer(invocation -> {
+            uploading.countDown();
+            Thread.sleep(200);
+            return "https://example.com/image.jpg";
+        });
+
+        notificationImageUploader.submit(notification, image, HASH);
+        assertTrue(uploading.await(5, TimeUnit.SECONDS));
+        notificationImageUploader.shutdown();
+
+        verify(notificationRepository).updateImage(1L, "https://example.com/image.jpg", null, NotificationImageStatus.UPLOADED);
+    }
+
+    @Test
+    @DisplayName("submit() should not publish an image swept to failed in the meantime")
+    void submitShouldNotPublishImageNoLongerPending() throws Exception {
+        when(notificationImageProcessor.process(image)).thenReturn(new ProcessedImage(image, null));
+        when(staticContentUploadService.uploadImage(image)).thenReturn("https://example.com/image.jpg");
+        when(notificationRepository.updateImage(1L, "https://example.com/image.jpg", null, NotificationImageStatus.UPLOADED))
+                .thenReturn(0);
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        verifyNoInteractions(notificationStreamHub);
+    }
+
+    @Test
+    @DisplayName("submit() should mark the image as failed when it cannot be processed")
+    void submitShouldMarkImageFailedWhenProcessingFails() throws Exception {
+        when(notificationImageProcessor.process(image)).thenThrow(new RejectedExecutionException("Shutting down"));
+        when(notificationRepository.updateImage(1L, null, null, NotificationImageStatus.FAILED)).thenReturn(1);
+
+        notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS);
+
+        verify(notificationStreamHub).publishUpdate(eq(2L), argThat(update -> update.getImageStatus() == NotificationImageStatus.FAILED));
+        verifyNoInteractions(staticContentUploadService);
+        assertFalse(Files.exists(image));
+    }
+
+    @Test
+    @DisplayName("submit() should fail the image right away when too many images are waiting")
+    void submitShouldFailImageBeyondCapacity() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Path otherImage = Files.write(Files.createTempFile("notification-image-", ".img"), "other image".getBytes());
+        NotificationDto otherNotification = NotificationDto.builder().id(3L).farmId(2L).build();
+        when(notificationImageProcessor.process(image)).thenAnswer(invocation -> {
+            uploading.countDown();
+            release.await();
+            return new ProcessedImage(image, null);
+        });
+        when(staticContentUploadService.uploadImage(image)).thenReturn("https://example.com/image.jpg");
+
+        Future<?> upload = notificationImageUploader.submit(notification, image, HASH);
+        assertTrue(uploading.await(5, TimeUnit.SECONDS));
+        notificationImageUploader.submit(otherNotification, otherImage, HASH).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        upload.get(5, TimeUnit.SECONDS);
+
+        verify(notificationRepository).updateImage(3L, null, null, NotificationImageStatus.FAILED);
+        verify(notificationImageProcessor, never()).process(otherImage);
+        assertFalse(Files.exists(otherImage));
+    }
+
+    @Test
+    @DisplayName("submit() should fail the image without throwing once shut down")
+    void submitShouldFailImageAfterShutdown() throws Exception {
+        notificationImageUploader.shutdown();
+
+        assertDoesNotThrow(() -> notificationImageUploader.submit(notification, image, HASH).get(5, TimeUnit.SECONDS));
+
+        verify(notificationRepository).updateImage(1L, null, null, NotificationImageStatus.FAILED);
+        verifyNoInteractions(notificationImageProcessor);
+        assertFalse(Files.exists(image));
+    }
+
+    @Test
+    @DisplayName("failStalePendingImages() should fail and publish the images pending for longer than the threshold")
+    void failStalePendingImagesShouldFailOldPendingImages() {
+        ArgumentCaptor<LocalDateTime> beforeCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        NotificationDto stale = NotificationDto.builder().id(4L).farmId(2L).imageStatus(NotificationImageStatus.PENDING).build();
+        NotificationDto uploadedMeanwhile = NotificationDto.builder().id(5L).farmId(2L).imageStatus(NotificationImageStatus.PENDING).build();
+        when(notificationRepository.findDtosWithPendingImageBefore(beforeCaptor.capture()))
+                .thenReturn(List.of(stale, uploadedMeanwhile));
+        when(notificationRepository.failPendingImages(List.of(4L, 5L))).thenReturn(List.of(4L));
+        LocalDateTime start = LocalDateTime.now();
+
+        notificationImageUploader.failStalePendingImages();
+
+        assertFalse(beforeCaptor.getValue().isBefore(start.minusMinutes(15)));
+        assertTrue(beforeCaptor.getValue().isBefore(start.minusMinutes(14)));
+        verify(notificationStreamHub).publishUpdate(eq(2L), argThat(update ->
+                update.getId() == 4L && update.getImageStatus() == NotificationImageStatus.FAILED));
+        verifyNoMoreInteractions(notificationStreamHub);
+    }
+
+    @Test
+    @DisplayName("failStalePendingImages() should leave alone the images still waiting for upload")
+    void failStalePendingImagesShouldSkipImagesInFlight() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(notificationImageProcessor.process(image)).thenAnswer(invocation -> {
+            uploading.countDown();
+            release.await();
+            return new ProcessedImage(image, null);
+        });
+        when(staticContentUploadService.uploadImage(image)).thenReturn("https://example.com/image.jpg");
+        when(notificationRepository.findDtosWithPendingImageBefore(any())).thenReturn(List.of(notification));
+
+        Future<?> upload = notificationImageUploader.submit(notification, image, HASH);
+        assertTrue(uploading.await(5, TimeUnit.SECONDS));
+        notificationImageUploader.failStalePendingImages();
+        release.countDown();
+        upload.get(5, TimeUnit.SECONDS);
+
+        verify(notificationRepository, never()).failPendingImages(any());
+    }
+}
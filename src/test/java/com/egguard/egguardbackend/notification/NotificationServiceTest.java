@@ -1,28 +1,39 @@
 package com.egguard.egguardbackend.notification;
 
 import com.egguard.egguardbackend.farm.Farm;
-import com.egguard.egguardbackend.shared.entity.Robot;
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
+import com.egguard.egguardbackend.shared.enums.RobotStatus;
+import com.egguard.egguardbackend.shared.enums.NotificationImageStatus;
 import com.egguard.egguardbackend.shared.enums.NotificationSeverity;
 import com.egguard.egguardbackend.farm.FarmRepository;
-import com.egguard.egguardbackend.shared.repository.RobotRepository;
+import com.egguard.egguardbackend.shared.service.IRobotCacheService;
+import com.egguard.egguardbackend.notification.image.ImageHashCache;
+import com.egguard.egguardbackend.notification.image.StoredImage;
 import com.egguard.egguardbackend.notification.request.RegisterNotificationRequest;
-import com.egguard.egguardbackend.shared.service.IStaticContentUploadService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -38,21 +49,28 @@ public class NotificationServiceTest {
     private NotificationRepository notificationRepository;
 
     @Mock
-    private RobotRepository robotRepository;
+    private IRobotCacheService robotCacheService;
 
     @Mock
     private FarmRepository farmRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private NotificationImageUploader notificationImageUploader;
 
     @Mock
-    private IStaticContentUploadService staticContentUploadService;
+    private ImageHashCache imageHashCache;
+
+    @Mock
+    private NotificationStreamHub notificationStreamHub;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @InjectMocks
     private NotificationService notificationService;
 
-    private Robot testRobot;
+    private Farm testFarm;
+    private RobotFarmDto testRobot;
     private Notification testNotification;
     private RegisterNotificationRequest registerNotificationRequest;
     private NotificationDto notificationDto;
@@ -61,14 +79,15 @@ public class NotificationServiceTest {
     @BeforeEach
     void setUp() {
         // Setting up test data
-        Farm testFarm = Farm.builder()
+        testFarm = Farm.builder()
                 .id(1L)
                 .name("Test Farm")
                 .build();
 
-        testRobot = Robot.builder()
-                .id(1L)
-                .farm(testFarm)
+        testRobot = RobotFarmDto.builder()
+                .robotId(1L)
+                .farmId(1L)
+                .status(RobotStatus.ACTIVE)
                 .build();
 
         registerNotificationRequest = new RegisterNotificationRequest();
@@ -86,6 +105,7 @@ public class NotificationServiceTest {
 
         notificationDto = NotificationDto.builder()
                 .id(testNotification.getId())
+                .farmId(testFarm.getId())
                 .message(testNotification.getMessage())
                 .severity(testNotification.getSeverity())
                 .timestamp(testNotification.getTimestamp())
@@ -104,10 +124,9 @@ public class NotificationServiceTest {
     @Test
     @DisplayName("registerNotification() should register a notification successfully without image")
     void registerNotificationShouldRegisterNotificationSuccessfully() throws IOException {
-        when(robotRepository.findById(1L)).thenReturn(Optional.of(testRobot));
-        when(modelMapper.map(registerNotificationRequest, Notification.class)).thenReturn(testNotification);
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
         when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
-        when(modelMapper.map(testNotification, NotificationDto.class)).thenReturn(notificationDto);
 
         NotificationDto result = notificationService.registerNotification(1L, registerNotificationRequest, null);
 
@@ -116,30 +135,42 @@ public class NotificationServiceTest {
         assertEquals(notificationDto.getMessage(), result.getMessage());
         assertEquals(notificationDto.getSeverity(), result.getSeverity());
         assertEquals(notificationDto.getPhotoUrl(), result.getPhotoUrl());
+        verifyNoInteractions(notificationImageUploader);
+        verify(notificationStreamHub).publish(1L, result);
     }
 
     @Test
-    @DisplayName("registerNotification should register a notification with image successfully")
+    @DisplayName("registerNotification should save a notification with a pending image and upload the image afterwards")
     void registerNotificationShouldRegisterNotificationWithImageSuccessfully() throws IOException {
-        when(robotRepository.findById(1L)).thenReturn(Optional.of(testRobot));
-        when(modelMapper.map(registerNotificationRequest, Notification.class)).thenReturn(testNotification);
-        when(staticContentUploadService.uploadImage(mockImageFile)).thenReturn(notificationDto.getPhotoUrl());
-        when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
-        when(modelMapper.map(testNotification, NotificationDto.class)).thenReturn(notificationDto);
+        ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(notificationRepository.save(notificationCaptor.capture())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(1L);
+            return notification;
+        });
 
         NotificationDto result = notificationService.registerNotification(1L, registerNotificationRequest, mockImageFile);
 
         assertNotNull(result);
         assertEquals(notificationDto.getId(), result.getId());
         assertEquals(notificationDto.getMessage(), result.getMessage());
-        assertEquals(notificationDto.getSeverity(), result.getSeverity());
-        assertEquals(notificationDto.getPhotoUrl(), result.getPhotoUrl());
+        assertEquals(NotificationImageStatus.PENDING, result.getImageStatus());
+        assertNull(result.getPhotoUrl());
+        assertEquals(NotificationImageStatus.PENDING, notificationCaptor.getValue().getImageStatus());
+        ArgumentCaptor<Path> imageCaptor = ArgumentCaptor.forClass(Path.class);
+        ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+        verify(notificationImageUploader).submit(eq(result), imageCaptor.capture(), hashCaptor.capture());
+        assertArrayEquals(mockImageFile.getBytes(), Files.readAllBytes(imageCaptor.getValue()));
+        assertEquals(ImageHashCache.hash(imageCaptor.getValue()), hashCaptor.getValue());
+        Files.delete(imageCaptor.getValue());
     }
 
     @Test
     @DisplayName("registerNotification() should throw EntityNotFoundException when robot is not found")
     void registerNotificationShouldThrowExceptionWhenRobotNotFound() {
-        when(robotRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(robotCacheService.findRobot(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> {
             notificationService.registerNotification(99L, registerNotificationRequest, null);
@@ -149,12 +180,12 @@ public class NotificationServiceTest {
     @Test
     @DisplayName("registerNotification() should throw IllegalStateException when robot has no farm")
     void registerNotificationShouldThrowExceptionWhenRobotHasNoFarm() {
-        Robot robotWithoutFarm = Robot.builder()
-                .id(2L)
-                .farm(null)
+        RobotFarmDto robotWithoutFarm = RobotFarmDto.builder()
+                .robotId(2L)
+                .farmId(null)
                 .build();
         
-        when(robotRepository.findById(2L)).thenReturn(Optional.of(robotWithoutFarm));
+        when(robotCacheService.findRobot(2L)).thenReturn(Optional.of(robotWithoutFarm));
 
         assertThrows(IllegalStateException.class, () -> {
             notificationService.registerNotification(2L, registerNotificationRequest, null);
@@ -162,27 +193,72 @@ public class NotificationServiceTest {
     }
 
     @Test
-    @DisplayName("registerNotification() should throw IOException when image upload fails")
-    void registerNotificationShouldThrowExceptionWhenImageUploadFails() throws IOException {
-        when(robotRepository.findById(1L)).thenReturn(Optional.of(testRobot));
-        when(modelMapper.map(registerNotificationRequest, Notification.class)).thenReturn(testNotification);
-        when(staticContentUploadService.uploadImage(mockImageFile)).thenThrow(new IOException("Upload failed"));
+    @DisplayName("registerNotification() should reuse the URLs of an identical image instead of uploading it again")
+    void registerNotificationShouldReuseUploadedIdenticalImage() throws IOException {
+        Path sameImage = Files.write(Files.createTempFile("same-image-", ".img"), mockImageFile.getBytes());
+        String hash = ImageHashCache.hash(sameImage);
+        Files.delete(sameImage);
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(imageHashCache.find(hash)).thenReturn(Optional.of(
+                new StoredImage(hash, "https://example.com/image.jpg", "https://example.com/thumbnail.jpg")));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        NotificationDto result = notificationService.registerNotification(1L, registerNotificationRequest, mockImageFile);
+
+        assertEquals(NotificationImageStatus.UPLOADED, result.getImageStatus());
+        assertEquals("https://example.com/image.jpg", result.getPhotoUrl());
+        assertEquals("https://example.com/thumbnail.jpg", result.getThumbnailUrl());
+        verifyNoInteractions(notificationImageUploader);
+    }
+
+    @Test
+    @DisplayName("registerNotification() should throw IOException and save nothing when the image cannot be read")
+    void registerNotificationShouldThrowExceptionWhenImageCannotBeRead() throws IOException {
+        MultipartFile unreadableImage = mock(MultipartFile.class);
+        when(unreadableImage.isEmpty()).thenReturn(false);
+        doThrow(new IOException("Read failed")).when(unreadableImage).transferTo(any(File.class));
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
 
         assertThrows(IOException.class, () -> {
-            notificationService.registerNotification(1L, registerNotificationRequest, mockImageFile);
+            notificationService.registerNotification(1L, registerNotificationRequest, unreadableImage);
+        });
+        verifyNoInteractions(notificationRepository, notificationImageUploader, notificationStreamHub, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("registerNotification() should delete the spooled image when the notification cannot be saved")
+    void registerNotificationShouldDeleteImageWhenSaveFails() throws IOException {
+        MultipartFile uploadedImage = mock(MultipartFile.class);
+        List<Path> spooledFiles = new ArrayList<>();
+        when(uploadedImage.isEmpty()).thenReturn(false);
+        doAnswer(invocation -> {
+            File destination = invocation.getArgument(0);
+            spooledFiles.add(Files.write(destination.toPath(), mockImageFile.getBytes()));
+            return null;
+        }).when(uploadedImage).transferTo(any(File.class));
+        when(robotCacheService.findRobot(1L)).thenReturn(Optional.of(testRobot));
+        when(farmRepository.getReferenceById(1L)).thenReturn(testFarm);
+        when(notificationRepository.save(any(Notification.class))).thenThrow(new IllegalStateException("Database down"));
+
+        assertThrows(IllegalStateException.class, () -> {
+            notificationService.registerNotification(1L, registerNotificationRequest, uploadedImage);
         });
+        assertEquals(1, spooledFiles.size());
+        assertFalse(Files.exists(spooledFiles.getFirst()));
+        verifyNoInteractions(notificationImageUploader, notificationStreamHub);
     }
 
     @Test
     @DisplayName("getNotificationsByFarm() should get notifications successfully")
     void getNotificationsByFarmShouldGetNotificationsSuccessfully() {
-        List<Notification> notifications = List.of(testNotification);
-        Page<Notification> notificationPage = new PageImpl<>(notifications);
+        // Row returned by the DTO projection, built with the entity mapping used before the projection
+        List<NotificationDto> notifications = List.of(NotificationMapper.toDto(testNotification));
+        Page<NotificationDto> notificationPage = new PageImpl<>(notifications);
         Pageable pageable = PageRequest.of(0, 10);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(notificationRepository.findByFarmId(1L, pageable)).thenReturn(notificationPage);
-        when(modelMapper.map(testNotification, NotificationDto.class)).thenReturn(notificationDto);
+        when(notificationRepository.findDtosByFarmId(1L, pageable)).thenReturn(notificationPage);
 
         Page<NotificationDto> result = notificationService.getNotificationsByFarm(1L, pageable);
 
@@ -194,11 +270,11 @@ public class NotificationServiceTest {
     @Test
     @DisplayName("getNotificationsByFarm() should return empty page when farm has no notifications")
     void getNotificationsByFarmShouldReturnEmptyPageWhenFarmHasNoNotifications() {
-        Page<Notification> emptyPage = new PageImpl<>(new ArrayList<>());
+        Page<NotificationDto> emptyPage = new PageImpl<>(new ArrayList<>());
         Pageable pageable = PageRequest.of(0, 10);
         
         when(farmRepository.existsById(1L)).thenReturn(true);
-        when(notificationRepository.findByFarmId(1L, pageable)).thenReturn(emptyPage);
+        when(notificationRepository.findDtosByFarmId(1L, pageable)).thenReturn(emptyPage);
 
         Page<NotificationDto> result = notificationService.getNotificationsByFarm(1L, pageable);
 
@@ -217,4 +293,25 @@ public class NotificationServiceTest {
             notificationService.getNotificationsByFarm(99L, pageable);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("subscribeToNotifications() should subscribe to the farm's notification stream")
+    void subscribeToNotificationsShouldSubscribeToFarmStream() {
+        SseEmitter emitter = new SseEmitter();
+        when(farmRepository.existsById(1L)).thenReturn(true);
+        when(notificationStreamHub.subscribe(1L)).thenReturn(emitter);
+
+        SseEmitter result = notificationService.subscribeToNotifications(1L);
+
+        assertSame(emitter, result);
+    }
+
+    @Test
+    @DisplayName("subscribeToNotifications() should throw EntityNotFoundException when farm is not found")
+    void subscribeToNotificationsShouldThrowExceptionWhenFarmNotFound() {
+        when(farmRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> notificationService.subscribeToNotifications(99L));
+        verifyNoInteractions(notificationStreamHub);
+    }
+}
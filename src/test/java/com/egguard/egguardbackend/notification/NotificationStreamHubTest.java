@@ -0,0 +1,140 @@
+package com.egguard.egguardbackend.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationStreamHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationStreamHub notificationStreamHub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notificationStreamHub = new NotificationStreamHub(meterRegistry, 2, Duration.ofMinutes(30));
+    }
+
+    @Test
+    @DisplayName("publish() should send the notification to the subscribers of its farm only")
+    void publishShouldSendNotificationToFarmSubscribers() throws InterruptedException {
+        RecordingEmitter farmSubscriber = new RecordingEmitter();
+        RecordingEmitter otherFarmSubscriber = new RecordingEmitter();
+        notificationStreamHub.subscribe(1L, farmSubscriber);
+        notificationStreamHub.subscribe(2L, otherFarmSubscriber);
+        NotificationDto notification = NotificationDto.builder().id(7L).farmId(1L).message("Broken egg").build();
+
+        notificationStreamHub.publish(1L, notification);
+
+        SseEmitter.SseEventBuilder event = farmSubscriber.events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertTrue(event.build().stream().anyMatch(data -> data.getData() == notification));
+        assertNull(otherFarmSubscriber.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("publishUpdate() should send the updated notification as a distinct event")
+    void publishUpdateShouldSendUpdatedEvent() throws InterruptedException {
+        RecordingEmitter subscriber = new RecordingEmitter();
+        notificationStreamHub.subscribe(1L, subscriber);
+        NotificationDto notification = NotificationDto.builder().id(7L).farmId(1L).photoUrl("https://example.com/image.jpg").build();
+
+        notificationStreamHub.publishUpdate(1L, notification);
+
+        SseEmitter.SseEventBuilder event = subscriber.events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertTrue(event.build().stream().anyMatch(data -> data.getData() == notification));
+        assertTrue(event.build().stream().map(data -> Objects.toString(data.getData()))
+                .anyMatch(text -> text.contains("event:" + NotificationStreamHub.NOTIFICATION_UPDATED_EVENT + "\n")));
+    }
+
+    @Test
+    @DisplayName("publish() should disconnect a subscriber that cannot keep up without holding back the others")
+    void publishShouldEvictSlowSubscriber() throws InterruptedException {
+        RecordingEmitter slowSubscriber = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter subscriber = new RecordingEmitter();
+        notificationStreamHub.subscribe(1L, slowSubscriber);
+        notificationStreamHub.subscribe(1L, subscriber);
+
+        // The slow subscriber is stuck on its first event, the next ones fill its buffer of 2
+        for (long id = 1; id <= 4; id++) {
+            notificationStreamHub.publish(1L, NotificationDto.builder().id(id).farmId(1L).build());
+            assertNotNull(subscriber.events.poll(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, notificationStreamHub.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("notifications.stream.evicted").counter().count());
+    }
+
+    @Test
+    @DisplayName("sendHeartbeats() should send a comment to every subscriber")
+    void sendHeartbeatsShouldSendCommentToSubscribers() throws InterruptedException {
+        RecordingEmitter subscriber = new RecordingEmitter();
+        notificationStreamHub.subscribe(1L, subscriber);
+
+        notificationStreamHub.sendHeartbeats();
+
+        SseEmitter.SseEventBuilder event = subscriber.events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertTrue(event.build().stream().map(data -> Objects.toString(data.getData())).anyMatch(text -> text.startsWith(":heartbeat")));
+    }
+
+    @Test
+    @DisplayName("the subscriber should be removed when the client has gone away")
+    void subscriberShouldBeRemovedWhenSendFails() throws InterruptedException {
+        RecordingEmitter disconnected = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        notificationStreamHub.subscribe(1L, disconnected);
+
+        notificationStreamHub.sendHeartbeats();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (notificationStreamHub.getSubscriberCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, notificationStreamHub.getSubscriberCount());
+    }
+
+    /**
+     * Emitter recording the events sent to it, optionally blocking on every send until released
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            events.add(builder);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.egguard.egguardbackend.notification.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationImageProcessorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationImageProcessor notificationImageProcessor;
+    private Path source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        notificationImageProcessor = new NotificationImageProcessor(meterRegistry, 640, 128, 0.8f, 2);
+        source = Files.createTempFile("camera-frame-", ".png");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        notificationImageProcessor.shutdown();
+        Files.deleteIfExists(source);
+    }
+
+    @Test
+    @DisplayName("process() should downscale the image, re-encode it as JPEG and produce a thumbnail")
+    void processShouldDownscaleAndProduceThumbnail() throws Exception {
+        BufferedImage frame = new BufferedImage(2000, 1500, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = frame.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.RED, 2000, 1500, Color.BLUE));
+        graphics.fillRect(0, 0, 2000, 1500);
+        graphics.dispose();
+        ImageIO.write(frame, "png", source.toFile());
+
+        ProcessedImage result = notificationImageProcessor.process(source);
+
+        try {
+            BufferedImage image = ImageIO.read(result.image().toFile());
+            BufferedImage thumbnail = ImageIO.read(result.thumbnail().toFile());
+            assertEquals(640, image.getWidth());
+            assertEquals(480, image.getHeight());
+            assertEquals(128, Math.max(thumbnail.getWidth(), thumbnail.getHeight()));
+            assertTrue(Files.size(result.image()) < Files.size(source));
+            assertTrue(meterRegistry.get("notifications.image.bytes.saved").counter().count() > 0);
+            assertEquals(1, meterRegistry.get("notifications.image.stage").tag("stage", "decode").timer().count());
+        } finally {
+            Files.deleteIfExists(result.image());
+            Files.deleteIfExists(result.thumbnail());
+        }
+    }
+
+    @Test
+    @DisplayName("process() should return files it cannot decode as they are, without thumbnail")
+    void processShouldKeepUndecodableFiles() throws Exception {
+        Files.writeString(source, "not an image");
+
+        ProcessedImage result = notificationImageProcessor.process(source);
+
+        assertEquals(source, result.image());
+        assertNull(result.thumbnail());
+    }
+
+    @Test
+    @DisplayName("process() should delete the files produced for a caller that stopped waiting")
+    void processShouldDeleteOutputsWhenCallerInterrupted() throws Exception {
+        // A single worker runs the images in order, the second one ends after the abandoned one
+        NotificationImageProcessor singleWorker = new NotificationImageProcessor(meterRegistry, 640, 128, 0.8f, 1);
+        Path smallSource = Files.createTempFile("camera-frame-", ".png");
+        try {
+            writeFrame(source, 4000, 3000);
+            writeFrame(smallSource, 800, 600);
+            Set<Path> before = processedFiles();
+
+            Thread caller = new Thread(() -> assertThrows(InterruptedException.class, () -> singleWorker.process(source)));
+            caller.start();
+            Thread.sleep(50);
+            caller.interrupt();
+            caller.join(5_000);
+            ProcessedImage next = singleWorker.process(smallSource);
+            Files.deleteIfExists(next.image());
+            Files.deleteIfExists(next.thumbnail());
+
+            assertEquals(before, processedFiles());
+        } finally {
+            singleWorker.shutdown();
+            Files.deleteIfExists(smallSource);
+        }
+    }
+
+    private static void writeFrame(Path target, int width, int height) throws IOException {
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = frame.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ImageIO.write(frame, "png", target.toFile());
+    }
+
+    private static Set<Path> processedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("egguard-image-")
+                            || file.getFileName().toString().startsWith("egguard-thumbnail-"))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    @Test
+    @DisplayName("resize() should never scale images up")
+    void resizeShouldNotScaleUp() {
+        BufferedImage small = new BufferedImage(100, 50, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage resized = NotificationImageProcessor.resize(small, 640);
+
+        assertEquals(100, resized.getWidth());
+        assertEquals(50, resized.getHeight());
+    }
+}
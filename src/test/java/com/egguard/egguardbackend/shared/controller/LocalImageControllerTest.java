@@ -0,0 +1,105 @@
+package com.egguard.egguardbackend.shared.controller;
+
+import com.egguard.egguardbackend.shared.service.LocalFileSystemStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalImageControllerTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3, 4, 5, 6};
+
+    @TempDir
+    Path directory;
+
+    private LocalImageController localImageController;
+    private String name;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalFileSystemStorageService storageService = new LocalFileSystemStorageService(directory.resolve("images"), "/api/v1/images");
+        String imageUrl = storageService.uploadImage(Files.write(directory.resolve("frame.img"), JPEG));
+        name = imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
+        localImageController = new LocalImageController(storageService);
+    }
+
+    @Test
+    @DisplayName("getImage() should send the whole image with strong caching headers")
+    void getImageShouldSendImage() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        localImageController.getImage(name, new MockHttpServletRequest("GET", "/api/v1/images/" + name), response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(JPEG, response.getContentAsByteArray());
+        assertEquals("image/jpeg", response.getContentType());
+        assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+        assertNotNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("getImage() should send only the requested range")
+    void getImageShouldSendRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/" + name);
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        localImageController.getImage(name, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertArrayEquals(new byte[]{(byte) 0xFF, (byte) 0xE0, 1, 2}, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("getImage() should answer 416 when the range starts after the end of the image")
+    void getImageShouldRejectUnsatisfiableRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/" + name);
+        request.addHeader("Range", "bytes=20-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        localImageController.getImage(name, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("getImage() should answer 304 when the client already has the image")
+    void getImageShouldAnswerNotModified() throws IOException {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        localImageController.getImage(name, new MockHttpServletRequest("GET", "/api/v1/images/" + name), first);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/" + name);
+        request.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        localImageController.getImage(name, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("getImage() should leave the body to the container when it supports sendfile")
+    void getImageShouldUseSendfileWhenSupported() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/" + name);
+        request.setAttribute(LocalImageController.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        localImageController.getImage(name, request, response);
+
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(0L, request.getAttribute(LocalImageController.SENDFILE_START));
+        assertEquals(10L, request.getAttribute(LocalImageController.SENDFILE_END));
+        assertEquals(10L, response.getContentLengthLong());
+    }
+}
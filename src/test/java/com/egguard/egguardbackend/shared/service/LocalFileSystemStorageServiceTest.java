@@ -0,0 +1,66 @@
+package com.egguard.egguardbackend.shared.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalFileSystemStorageServiceTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3, 4};
+
+    @TempDir
+    Path directory;
+
+    @TempDir
+    Path uploads;
+
+    private LocalFileSystemStorageService localFileSystemStorageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        localFileSystemStorageService = new LocalFileSystemStorageService(directory.resolve("images"), "/api/v1/images");
+    }
+
+    @Test
+    @DisplayName("uploadImage() should copy the image under a new name and keep the source file")
+    void uploadImageShouldStoreCopy() throws IOException {
+        Path image = Files.write(uploads.resolve("frame.img"), JPEG);
+
+        String imageUrl = localFileSystemStorageService.uploadImage(image);
+
+        assertTrue(imageUrl.matches("/api/v1/images/[0-9a-f-]{36}\\.jpg"));
+        String name = imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
+        Path stored = localFileSystemStorageService.find(name).orElseThrow();
+        assertArrayEquals(JPEG, Files.readAllBytes(stored));
+        assertTrue(Files.exists(image));
+        // No temporary file is left behind
+        try (var files = Files.list(directory.resolve("images"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("find() should refuse names outside of the stored images")
+    void findShouldRefuseOtherNames() throws IOException {
+        Files.writeString(directory.resolve("secret.txt"), "secret");
+
+        assertTrue(localFileSystemStorageService.find("../secret.txt").isEmpty());
+        assertTrue(localFileSystemStorageService.find("00000000-0000-0000-0000-000000000000.jpg").isEmpty());
+    }
+
+    @Test
+    @DisplayName("extensionOf() should recognize images from their first bytes")
+    void extensionOfShouldRecognizeFormats() throws IOException {
+        assertEquals("jpg", LocalFileSystemStorageService.extensionOf(Files.write(uploads.resolve("a"), JPEG)));
+        assertEquals("png", LocalFileSystemStorageService.extensionOf(
+                Files.write(uploads.resolve("b"), new byte[]{(byte) 0x89, 'P', 'N', 'G', 13, 10})));
+        assertEquals("bin", LocalFileSystemStorageService.extensionOf(Files.write(uploads.resolve("c"), new byte[]{1})));
+    }
+}
@@ -0,0 +1,74 @@
+package com.egguard.egguardbackend.shared.service;
+
+import com.egguard.egguardbackend.shared.dto.RobotFarmDto;
+import com.egguard.egguardbackend.shared.enums.RobotStatus;
+import com.egguard.egguardbackend.shared.repository.RobotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RobotCacheServiceTest {
+
+    @Mock
+    private RobotRepository robotRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RobotCacheService robotCacheService;
+    private RobotFarmDto testRobot;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        robotCacheService = new RobotCacheService(robotRepository, meterRegistry, 100, Duration.ofMinutes(10));
+        testRobot = RobotFarmDto.builder()
+                .robotId(1L)
+                .farmId(1L)
+                .status(RobotStatus.ACTIVE)
+                .build();
+    }
+
+    @Test
+    @DisplayName("findRobot() should query a robot only once while it is cached")
+    void findRobotShouldQueryRobotOnlyOnce() {
+        when(robotRepository.findRobotFarmById(1L)).thenReturn(Optional.of(testRobot));
+
+        assertEquals(testRobot, robotCacheService.findRobot(1L).orElseThrow());
+        assertEquals(testRobot, robotCacheService.findRobot(1L).orElseThrow());
+
+        verify(robotRepository, times(1)).findRobotFarmById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "robots").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "robots").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("findRobot() should query the robot again after it is invalidated")
+    void findRobotShouldQueryRobotAgainAfterInvalidation() {
+        RobotFarmDto reassignedRobot = new RobotFarmDto(1L, 2L, RobotStatus.ACTIVE);
+        when(robotRepository.findRobotFarmById(1L)).thenReturn(Optional.of(testRobot), Optional.of(reassignedRobot));
+
+        robotCacheService.findRobot(1L);
+        robotCacheService.invalidate(1L);
+
+        assertEquals(2L, robotCacheService.findRobot(1L).orElseThrow().getFarmId());
+    }
+
+    @Test
+    @DisplayName("findRobot() should not cache robots that don't exist")
+    void findRobotShouldNotCacheMissingRobots() {
+        when(robotRepository.findRobotFarmById(99L)).thenReturn(Optional.empty(), Optional.of(testRobot));
+
+        assertTrue(robotCacheService.findRobot(99L).isEmpty());
+        assertTrue(robotCacheService.findRobot(99L).isPresent());
+    }
+}